@@ -0,0 +1,98 @@
+package com.matchmaking.backend.config;
+
+import com.matchmaking.backend.service.JwtService;
+import com.matchmaking.backend.service.TokenRevocationService;
+import com.matchmaking.backend.service.UserPrincipalCache;
+import com.matchmaking.backend.service.UserService;
+import io.jsonwebtoken.Claims;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+
+/**
+ * Zamienia access token JWT na obiekt {@link Authentication}.
+ * Współdzielony przez filtr HTTP i uwierzytelnianie połączeń WebSocket (STOMP CONNECT).
+ */
+@Component
+@RequiredArgsConstructor
+public class JwtAuthenticationResolver {
+
+    private final JwtService jwtService;
+    private final UserService userService;
+    private final UserPrincipalCache principalCache;
+    private final TokenRevocationService tokenRevocationService;
+
+    // true - principal budowany z claims tokenu, bez zapytania do bazy
+    @Value("${app.security.stateless-auth:true}")
+    private boolean statelessAuth;
+
+    /**
+     * @param authHeader wartość nagłówka Authorization ("Bearer ...")
+     * @return uwierzytelnienie lub {@code null}, jeśli token jest niepoprawny, unieważniony albo konto jest wyłączone
+     */
+    public Authentication authenticate(String authHeader) {
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            return null;
+        }
+
+        Claims claims = jwtService.parseToken(authHeader.substring(7));
+        if (claims == null || tokenRevocationService.isRevoked(claims.getId())) {
+            return null;
+        }
+
+        UserDetails userDetails = resolvePrincipal(claims);
+        if (userDetails == null || !userDetails.isEnabled()) {
+            return null;
+        }
+
+        return new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+    }
+
+    /**
+     * Ustala principal dla poprawnego tokenu.
+     * W trybie bezstanowym korzysta z claims, chyba że uprawnienia użytkownika zmieniły się
+     * po wystawieniu tokenu - wtedy (oraz w trybie stanowym) principal pochodzi z cache lub bazy.
+     */
+    private UserDetails resolvePrincipal(Claims claims) {
+        String email = claims.getSubject();
+
+        if (statelessAuth && !principalCache.isStale(email, claims.getIssuedAt())) {
+            UserDetails fromClaims = fromClaims(claims);
+            if (fromClaims != null) {
+                return fromClaims;
+            }
+        }
+
+        try {
+            return principalCache.get(email, userService::loadUserByUsername);
+        } catch (UsernameNotFoundException e) {
+            return null;
+        }
+    }
+
+    private UserDetails fromClaims(Claims claims) {
+        String role = claims.get(JwtService.ROLE_CLAIM, String.class);
+        Boolean enabled = claims.get(JwtService.ENABLED_CLAIM, Boolean.class);
+        if (role == null || enabled == null) {
+            // token wystawiony przed wprowadzeniem claims
+            return null;
+        }
+        return new User(
+                claims.getSubject(),
+                "",
+                enabled,
+                true,
+                true,
+                true,
+                Collections.singletonList(new SimpleGrantedAuthority(role))
+        );
+    }
+}
@@ -2,6 +2,7 @@ package com.matchmaking.backend.config;
 
 import com.matchmaking.backend.model.auth.User;
 import com.matchmaking.backend.service.JwtService;
+import com.matchmaking.backend.service.RefreshTokenService;
 import com.matchmaking.backend.service.UserService;
 import io.jsonwebtoken.io.IOException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -20,6 +21,7 @@ public class OAuth2LoginSuccessHandler implements AuthenticationSuccessHandler {
 
     private final JwtService jwtService;
     private final UserService userService;
+    private final RefreshTokenService refreshTokenService;
 
     @Override
     public void onAuthenticationSuccess(HttpServletRequest request,
@@ -33,9 +35,12 @@ public class OAuth2LoginSuccessHandler implements AuthenticationSuccessHandler {
         String lastName = oauthUser.getAttribute("family_name");
 
         User user = userService.processOAuthPostLogin(email, firstName, lastName);
-        String token = jwtService.generateToken(user.getEmail());
+        String token = jwtService.generateToken(user);
+        String refreshToken = refreshTokenService.issue(user);
 
-        // token w odpowiedzi:
-        response.sendRedirect("http://localhost:5173/oauth-callback?token=" + token);
+        // tokeny we fragmencie URL (#), nie w query string: fragment nie jest wysyłany do serwera,
+        // więc nie trafia do logów dostępowych, proxy ani nagłówka Referer
+        response.sendRedirect("http://localhost:5173/oauth-callback#token=" + token
+                + "&refreshToken=" + refreshToken);
     }
 }
\ No newline at end of file
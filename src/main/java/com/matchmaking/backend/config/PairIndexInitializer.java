@@ -0,0 +1,29 @@
+package com.matchmaking.backend.config;
+
+import com.matchmaking.backend.service.ChatService;
+import com.matchmaking.backend.service.recommendation.RecommendationService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+
+/**
+ * Zakłada indeksy unikalne par konwersacji i rekomendacji, zanim aplikacja zacznie obsługiwać żądania.
+ * <p>
+ * Przy duplikatach w bazie {@code ddl-auto=update} nie utworzy indeksów {@code uk_conversations_pair}
+ * i {@code uk_user_recommendations_pair}, a bez nich każde {@code INSERT ... ON CONFLICT} na parze kończy się
+ * błędem. Scalenie duplikatów i utworzenie indeksów wykonywane jest po utworzeniu wszystkich beanów,
+ * ale przed startem serwera WWW; błąd przerywa start aplikacji.
+ */
+@Component
+@RequiredArgsConstructor
+public class PairIndexInitializer implements SmartInitializingSingleton {
+
+    private final ChatService chatService;
+    private final RecommendationService recommendationService;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        chatService.canonicalizeConversationPairs();
+        recommendationService.canonicalizeRecommendationPairs();
+    }
+}
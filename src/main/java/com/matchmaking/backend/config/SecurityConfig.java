@@ -53,6 +53,12 @@ public class SecurityConfig {
                         .sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers("/api/auth/**", "/oauth2/**").permitAll()
+                        // handshake WebSocket - uwierzytelnienie odbywa się w ramce STOMP CONNECT
+                        .requestMatchers("/ws/**").permitAll()
+                        // webhook Cloudinary - weryfikowany podpisem powiadomienia
+                        .requestMatchers("/api/images/cloudinary/notify").permitAll()
+                        // pliki zdjęć z magazynu lokalnego (publiczne, jak URL-e Cloudinary)
+                        .requestMatchers("/api/images/files/**").permitAll()
                         .requestMatchers("/api/profile/**").authenticated()
                         .anyRequest().authenticated())
                 .oauth2Login(oauth -> oauth
@@ -0,0 +1,58 @@
+package com.matchmaking.backend.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+
+/**
+ * Uwierzytelnia połączenia STOMP tym samym access tokenem JWT co REST API.
+ * Token przekazywany jest w natywnym nagłówku {@code Authorization} ramki CONNECT.
+ * Subskrypcje ograniczone są do kolejek użytkownika, a ramki SEND do celów aplikacji ({@code /app/...}).
+ */
+@Component
+@RequiredArgsConstructor
+public class WebSocketAuthChannelInterceptor implements ChannelInterceptor {
+
+    static final String APP_PREFIX = "/app/";
+
+    private final JwtAuthenticationResolver jwtAuthenticationResolver;
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null) {
+            return message;
+        }
+
+        if (StompCommand.CONNECT.equals(accessor.getCommand())) {
+            Authentication authentication =
+                    jwtAuthenticationResolver.authenticate(accessor.getFirstNativeHeader("Authorization"));
+            if (authentication == null) {
+                throw new AccessDeniedException("Nieprawidłowy lub wygasły token");
+            }
+            accessor.setUser(authentication);
+        } else if (StompCommand.SUBSCRIBE.equals(accessor.getCommand())) {
+            // subskrybować można wyłącznie własne kolejki użytkownika
+            String destination = accessor.getDestination();
+            if (accessor.getUser() == null || destination == null || !destination.startsWith("/user/")) {
+                throw new AccessDeniedException("Brak dostępu do " + destination);
+            }
+        } else if (StompCommand.SEND.equals(accessor.getCommand())) {
+            // klient może wysyłać wyłącznie do kontrolerów aplikacji - nigdy bezpośrednio do brokera
+            // ani do kolejek innych użytkowników (/user/{email}/queue/...)
+            String destination = accessor.getDestination();
+            if (accessor.getUser() == null || destination == null || !destination.startsWith(APP_PREFIX)) {
+                throw new AccessDeniedException("Brak dostępu do " + destination);
+            }
+        }
+
+        return message;
+    }
+}
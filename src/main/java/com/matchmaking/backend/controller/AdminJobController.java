@@ -0,0 +1,29 @@
+package com.matchmaking.backend.controller;
+
+import com.matchmaking.backend.model.job.BackgroundJobDTO;
+import com.matchmaking.backend.service.job.BackgroundJobRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Podgląd postępu zadań administracyjnych działających w tle.
+ */
+@RestController
+@RequestMapping("/api/admin/jobs")
+@RequiredArgsConstructor
+@PreAuthorize("hasAuthority('ADMIN')")
+public class AdminJobController {
+
+    private final BackgroundJobRegistry jobRegistry;
+
+    /**
+     * Pobiera status zadania
+     * @param jobId ID zadania zwrócone przez endpoint, który je uruchomił
+     */
+    @GetMapping("/{jobId}")
+    public ResponseEntity<BackgroundJobDTO> getJob(@PathVariable String jobId) {
+        return ResponseEntity.ok(jobRegistry.getJob(jobId));
+    }
+}
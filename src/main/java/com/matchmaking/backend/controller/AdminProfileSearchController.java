@@ -0,0 +1,35 @@
+package com.matchmaking.backend.controller;
+
+import com.matchmaking.backend.model.search.ProfileSearchResultDTO;
+import com.matchmaking.backend.service.search.ProfileSearchService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * Wyszukiwanie kandydatów do rekomendacji po treści profili.
+ */
+@RestController
+@RequestMapping("/api/admin/profiles")
+@RequiredArgsConstructor
+@PreAuthorize("hasAuthority('ADMIN')")
+public class AdminProfileSearchController {
+
+    private final ProfileSearchService profileSearchService;
+
+    /**
+     * Wyszukuje profile, których bio lub sekcje pasują do zapytania
+     * @param q zapytanie tekstowe
+     * @param limit maksymalna liczba wyników (domyślnie 20, najwyżej 100)
+     */
+    @GetMapping("/search")
+    public ResponseEntity<List<ProfileSearchResultDTO>> searchProfiles(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "20") int limit
+    ) {
+        return ResponseEntity.ok(profileSearchService.searchProfiles(q, limit));
+    }
+}
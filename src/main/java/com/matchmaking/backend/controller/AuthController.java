@@ -10,7 +10,8 @@ import org.springframework.web.bind.annotation.*;
 
 /**
  * Kontroler obsługujący operacje związane z autoryzacją użytkowników.
- * Obsługuje rejestrację, logowanie, weryfikację konta, resetowanie hasła i zmianę adresu e-mail.
+ * Obsługuje rejestrację, logowanie (wraz z odświeżaniem tokenów i wylogowaniem), weryfikację konta,
+ * resetowanie hasła i zmianę adresu e-mail.
  */
 @RestController
 @RequestMapping("/api/auth")
@@ -34,6 +35,19 @@ public class AuthController {
         return authService.login(request);
     }
 
+    @PostMapping("/refresh")
+    public ResponseEntity<?> refreshToken(@Valid @RequestBody RefreshTokenRequestDTO request) {
+        return authService.refreshToken(request);
+    }
+
+    @PostMapping("/logout")
+    public ResponseEntity<?> logout(
+            @RequestHeader(value = "Authorization", required = false) String authHeader,
+            @RequestBody(required = false) RefreshTokenRequestDTO request) {
+        String accessToken = authHeader != null && authHeader.startsWith("Bearer ") ? authHeader.substring(7) : null;
+        return authService.logout(accessToken, request);
+    }
+
     @PostMapping("/resend-verification-email")
     public ResponseEntity<?> resendVerificationEmail(@RequestParam String email) {
         return authService.resendVerificationEmail(email);
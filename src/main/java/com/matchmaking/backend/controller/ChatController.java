@@ -3,6 +3,7 @@ package com.matchmaking.backend.controller;
 import com.matchmaking.backend.model.chat.ConversationDTO;
 import com.matchmaking.backend.model.chat.MessageDTO;
 import com.matchmaking.backend.model.chat.MessageRequest;
+import com.matchmaking.backend.model.chat.MessageSliceDTO;
 import com.matchmaking.backend.service.UserService;
 import com.matchmaking.backend.service.ChatService;
 import jakarta.validation.Valid;
@@ -40,6 +41,19 @@ public class ChatController {
         return chatService.getConversationMessages(conversationId, currentProfileId, pageable);
     }
 
+    /**
+     * Pobiera wiadomości z danej konwersacji stronicowane kursorem (bez zliczania wszystkich wiadomości).
+     * Brak kursora oznacza najnowsze wiadomości.
+     */
+    @GetMapping("/conversations/{conversationId}/messages/scroll")
+    public MessageSliceDTO getConversationMessagesSlice(
+            @PathVariable Long conversationId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        Long currentProfileId = userService.getCurrentUser().getProfile().getId();
+        return chatService.getConversationMessagesSlice(conversationId, currentProfileId, cursor, size);
+    }
+
     /**
      * Wysyła wiadomość do innego użytkownika na podstawie ID profilu odbiorcy.
      */
@@ -0,0 +1,68 @@
+package com.matchmaking.backend.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.matchmaking.backend.service.image.CloudinaryService;
+import com.matchmaking.backend.service.image.ImageService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+
+/**
+ * Odbiera powiadomienia Cloudinary o zakończeniu asynchronicznych transformacji (eager_async).
+ * Endpoint jest publiczny - autentyczność sprawdzana jest podpisem powiadomienia.
+ */
+@RestController
+@RequestMapping("/api/images/cloudinary")
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.images.storage", havingValue = "cloudinary", matchIfMissing = true)
+public class CloudinaryNotificationController {
+
+    private final CloudinaryService cloudinaryService;
+    private final ImageService imageService;
+    private final ObjectMapper objectMapper;
+
+    @PostMapping("/notify")
+    public ResponseEntity<?> handleNotification(
+            @RequestBody String body,
+            @RequestHeader("X-Cld-Timestamp") long timestamp,
+            @RequestHeader("X-Cld-Signature") String signature) throws IOException {
+        if (!cloudinaryService.verifyNotificationSignature(body, timestamp, signature)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Nieprawidłowy podpis powiadomienia");
+        }
+
+        JsonNode notification = objectMapper.readTree(body);
+        if (!"eager".equals(notification.path("notification_type").asText())) {
+            // inne typy powiadomień nie są obsługiwane - potwierdzamy, aby Cloudinary nie ponawiał
+            return ResponseEntity.ok().build();
+        }
+
+        String publicId = notification.path("public_id").asText(null);
+        if (publicId == null) {
+            return ResponseEntity.badRequest().body("Brak public_id w powiadomieniu");
+        }
+
+        // kolejność wersji odpowiada kolejności eager w uploadzie: galeria, miniatura
+        JsonNode eager = notification.path("eager");
+        boolean updated;
+        if (eager.size() >= 2) {
+            updated = imageService.completeDerivedVersions(
+                    publicId,
+                    eager.get(0).path("secure_url").asText(eager.get(0).path("url").asText()),
+                    eager.get(1).path("secure_url").asText(eager.get(1).path("url").asText())
+            );
+        } else {
+            updated = imageService.failDerivedVersions(publicId);
+        }
+
+        if (!updated) {
+            // powiadomienie mogło wyprzedzić commit uploadu - odpowiedź inna niż 2xx, aby Cloudinary ponowił
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Zdjęcie " + publicId + " nie istnieje");
+        }
+        return ResponseEntity.ok().build();
+    }
+}
@@ -0,0 +1,55 @@
+package com.matchmaking.backend.controller;
+
+import com.matchmaking.backend.service.image.LocalImageStorage;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Serwuje pliki zdjęć z lokalnego magazynu ({@code app.images.storage=local}).
+ * <p>
+ * Odpowiedź to {@link Resource} pliku - Spring MVC obsługuje na jej podstawie nagłówki
+ * If-None-Match/If-Modified-Since (304) oraz żądania Range (206) bez ładowania pliku do pamięci.
+ */
+@RestController
+@RequestMapping("/api/images/files")
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.images.storage", havingValue = "local")
+public class LocalImageFileController {
+
+    private final LocalImageStorage localImageStorage;
+
+    @GetMapping("/{folder}/{imageId}/{fileName:.+}")
+    public ResponseEntity<Resource> getFile(
+            @PathVariable String folder,
+            @PathVariable String imageId,
+            @PathVariable String fileName) throws IOException {
+        Path file = localImageStorage.resolveFile(folder + "/" + imageId, fileName);
+
+        long lastModified = Files.getLastModifiedTime(file).toMillis();
+        long size = Files.size(file);
+        String etag = "\"" + Long.toHexString(lastModified) + "-" + Long.toHexString(size) + "\"";
+
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .lastModified(lastModified)
+                .cacheControl(CacheControl.maxAge(Duration.ofDays(1)).cachePublic())
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                .contentType(MediaType.IMAGE_JPEG)
+                .body(new FileSystemResource(file));
+    }
+}
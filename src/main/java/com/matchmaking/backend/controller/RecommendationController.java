@@ -1,9 +1,15 @@
 package com.matchmaking.backend.controller;
 
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.matchmaking.backend.model.job.BackgroundJobDTO;
+import com.matchmaking.backend.model.recommendation.RecommendationPairDTO;
+import com.matchmaking.backend.model.recommendation.RecommendationPairResultDTO;
 import com.matchmaking.backend.model.recommendation.RecommendationStatus;
 import com.matchmaking.backend.model.recommendation.UserRecommendation;
 import com.matchmaking.backend.model.recommendation.UserRecommendationDTO;
+import com.matchmaking.backend.service.recommendation.RecommendationBulkService;
 import com.matchmaking.backend.service.recommendation.RecommendationService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
@@ -11,12 +17,22 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/recommendations")
 @RequiredArgsConstructor
 public class RecommendationController {
 
     private final RecommendationService recommendationService;
+    private final RecommendationBulkService recommendationBulkService;
+    private final ObjectMapper objectMapper;
 
     /**
      * Tworzy rekomendację między dwoma profilami użytkowników.
@@ -34,6 +50,61 @@ public class RecommendationController {
         return ResponseEntity.ok(recommendationService.createRecommendation(firstProfileId, secondProfileId));
     }
 
+    /**
+     * Tworzy rekomendacje dla listy par profili.
+     * Dostępne tylko dla administratorów.
+     *
+     * @param pairs Pary profili
+     * @return Wynik dla każdej pary, w kolejności z żądania
+     */
+    @PostMapping(value = "/bulk", consumes = "application/json")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseEntity<List<RecommendationPairResultDTO>> createRecommendations(
+            @RequestBody List<RecommendationPairDTO> pairs) {
+        return ResponseEntity.ok(recommendationBulkService.createRecommendations(pairs));
+    }
+
+    /**
+     * Tworzy rekomendacje dla par profili przesłanych jako NDJSON (jedna para JSON w linii).
+     * Dostępne tylko dla administratorów.
+     *
+     * @param body Strumień NDJSON
+     * @return Wynik dla każdej pary, w kolejności z żądania
+     */
+    @PostMapping(value = "/bulk", consumes = "application/x-ndjson")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseEntity<List<RecommendationPairResultDTO>> createRecommendationsFromNdjson(
+            InputStream body) throws IOException {
+        List<RecommendationPairDTO> pairs = new ArrayList<>();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                pairs.add(objectMapper.readValue(line, RecommendationPairDTO.class));
+            } catch (JsonProcessingException e) {
+                throw new IllegalArgumentException("Niepoprawna linia NDJSON: " + lineNumber);
+            }
+        }
+        return ResponseEntity.ok(recommendationBulkService.createRecommendations(pairs));
+    }
+
+    /**
+     * Uruchamia automatyczne generowanie rekomendacji dla wszystkich profili.
+     * Dostępne tylko dla administratorów.
+     *
+     * @return Stan zadania w tle (postęp: GET /api/admin/jobs/{jobId})
+     */
+    @PostMapping("/generate")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseEntity<BackgroundJobDTO> generateRecommendations() {
+        return ResponseEntity.accepted().body(recommendationService.generateRecommendations());
+    }
+
     /**
      * Pobiera rekomendacje dla danego profilu użytkownika.
      * @param profileId ID profilu użytkownika
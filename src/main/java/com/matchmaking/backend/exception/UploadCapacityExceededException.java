@@ -0,0 +1,11 @@
+package com.matchmaking.backend.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class UploadCapacityExceededException extends RuntimeException {
+    public UploadCapacityExceededException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,10 @@
+package com.matchmaking.backend.model.auth;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.Data;
+
+@Data
+public class RefreshTokenRequestDTO {
+    @NotBlank(message = "Refresh token jest wymagany!")
+    private String refreshToken;
+}
@@ -0,0 +1,16 @@
+package com.matchmaking.backend.model.chat;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Zdarzenie wysłania wiadomości; dostarczane odbiorcy przez kanał push po commicie transakcji.
+ */
+@Data
+@AllArgsConstructor
+public class ChatMessageSentEvent {
+    // nazwa principala odbiorcy
+    private String recipientEmail;
+    // wiadomość z perspektywy odbiorcy
+    private MessageDTO message;
+}
@@ -3,6 +3,7 @@ package com.matchmaking.backend.model.chat;
 import com.matchmaking.backend.model.profile.UserProfile;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
@@ -12,7 +13,10 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "conversations")
+@Table(name = "conversations", indexes = {
+        // para w postaci kanonicznej (firstUser.id < secondUser.id) - jedna konwersacja na parę profili
+        @Index(name = "uk_conversations_pair", columnList = "first_user_id, second_user_id", unique = true)
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -46,4 +50,23 @@ public class Conversation {
 
     @Column(nullable = false)
     private LocalDateTime lastMessageAt;
+
+    // Pola zdenormalizowane - aktualizowane atomowo przy wysyłce i odczycie wiadomości,
+    // dzięki czemu skrzynka odbiorcza i licznik nieprzeczytanych nie agregują tabeli messages
+
+    @Column(length = 50)
+    private String lastMessagePreview;
+
+    @Column
+    private Long lastMessageSenderId;
+
+    // nieprzeczytane wiadomości, których odbiorcą jest firstUser
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    private int unreadCountFirst;
+
+    // nieprzeczytane wiadomości, których odbiorcą jest secondUser
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    private int unreadCountSecond;
 }
\ No newline at end of file
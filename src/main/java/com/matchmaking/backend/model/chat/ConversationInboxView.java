@@ -0,0 +1,23 @@
+package com.matchmaking.backend.model.chat;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Projekcja pojedynczej pozycji skrzynki odbiorczej, pobierana jednym zapytaniem
+ * (dane rozmówcy, podgląd ostatniej wiadomości, liczba nieprzeczytanych).
+ * Podgląd i licznik pochodzą z pól zdenormalizowanych encji {@link Conversation}.
+ */
+@Data
+@AllArgsConstructor
+public class ConversationInboxView {
+    private Long conversationId;
+    private Long recipientId;
+    private String recipientFirstName;
+    private String recipientLastName;
+    private String lastMessagePreview;
+    private LocalDateTime lastMessageAt;
+    private Integer unreadCount;
+}
@@ -0,0 +1,15 @@
+package com.matchmaking.backend.model.chat;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Zdarzenie odczytania konwersacji; dostarczane drugiemu uczestnikowi przez kanał push po commicie transakcji.
+ */
+@Data
+@AllArgsConstructor
+public class ConversationReadEvent {
+    // nazwa principala drugiego uczestnika konwersacji
+    private String senderEmail;
+    private ReadReceiptDTO receipt;
+}
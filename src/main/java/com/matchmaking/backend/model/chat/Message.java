@@ -9,7 +9,10 @@ import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "messages")
+@Table(name = "messages", indexes = {
+        // stronicowanie kursorem (keyset) po (createdAt, id) w obrębie konwersacji
+        @Index(name = "idx_messages_conversation_created_id", columnList = "conversation_id, created_at DESC, id DESC")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -0,0 +1,20 @@
+package com.matchmaking.backend.model.chat;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Porcja wiadomości stronicowana kursorem.
+ * {@code nextCursor} należy przekazać w kolejnym żądaniu, aby pobrać starsze wiadomości.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MessageSliceDTO {
+    private List<MessageDTO> messages;
+    private String nextCursor;
+    private boolean hasNext;
+}
@@ -0,0 +1,20 @@
+package com.matchmaking.backend.model.chat;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Potwierdzenie odczytu wysyłane nadawcy, gdy odbiorca oznaczy konwersację jako przeczytaną.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReadReceiptDTO {
+    private Long conversationId;
+    private Long readerId;
+    private int readCount;
+    private LocalDateTime readAt;
+}
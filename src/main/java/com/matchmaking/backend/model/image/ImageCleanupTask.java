@@ -0,0 +1,45 @@
+package com.matchmaking.backend.model.image;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import java.time.LocalDateTime;
+
+/**
+ * Zadanie usunięcia zdjęcia z magazynu (outbox).
+ * Zapisywane w tej samej transakcji co usunięcie danych w bazie i usuwane dopiero po potwierdzeniu
+ * usunięcia pliku - dzięki temu nieudane usunięcia są ponawiane także po restarcie aplikacji.
+ */
+@Entity
+@Table(name = "image_cleanup_tasks", indexes = {
+        @Index(name = "idx_image_cleanup_next_attempt", columnList = "next_attempt_at")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@EntityListeners(AuditingEntityListener.class)
+public class ImageCleanupTask {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String publicId;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(length = 500)
+    private String lastError;
+
+    @Column(nullable = false, updatable = false)
+    @CreatedDate
+    private LocalDateTime createdAt;
+}
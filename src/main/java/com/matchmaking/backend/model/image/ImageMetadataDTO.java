@@ -0,0 +1,16 @@
+package com.matchmaking.backend.model.image;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Metadane zapisanego oryginału zdjęcia (po ograniczeniu rozmiaru przy uploadzie).
+ */
+@Data
+@AllArgsConstructor
+public class ImageMetadataDTO {
+    private final Integer width;
+    private final Integer height;
+    private final Long bytes;
+    private final String format;
+}
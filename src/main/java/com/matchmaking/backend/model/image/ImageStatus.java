@@ -0,0 +1,11 @@
+package com.matchmaking.backend.model.image;
+
+/**
+ * Stan przetwarzania wersji pochodnych zdjęcia (galeria, miniatura).
+ */
+public enum ImageStatus {
+    // wersje pochodne są generowane w tle; URL-e galerii i miniatury są przewidywane
+    PENDING,
+    READY,
+    FAILED
+}
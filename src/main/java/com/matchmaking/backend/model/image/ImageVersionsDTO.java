@@ -12,5 +12,8 @@ public class ImageVersionsDTO {
     private final String originalUrl;
     private final String galleryUrl;
     private final String thumbnailUrl;
+    private final ImageMetadataDTO metadata;
+    // true - wersje pochodne generowane asynchronicznie, zakończenie zgłosi webhook Cloudinary
+    private final boolean pending;
 
 }
@@ -4,6 +4,7 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.matchmaking.backend.model.profile.UserProfile;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
@@ -44,12 +45,33 @@ public class UserProfileImage {
     // URL do przyciętego zdjęcia avatara
     private String avatarUrl;
 
+    // metadane oryginału zapisywane przy uploadzie - odczyt nie wymaga zapytań do Cloudinary
+    private Integer width;
+
+    private Integer height;
+
+    private Long bytes;
+
+    @Column(length = 10)
+    private String format;
+
+    // wymiary ostatniego kadrowania galerii (null - zdjęcie niekadrowane)
+    private Integer cropWidth;
+
+    private Integer cropHeight;
+
     @Column(nullable = false)
     private boolean isAvatar;
 
     @Column(nullable = false)
     private int displayOrder;
 
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    @ColumnDefault("'READY'")
+    @Builder.Default
+    private ImageStatus status = ImageStatus.READY;
+
     @Column(nullable = false, updatable = false)
     @CreatedDate
     private LocalDateTime createdAt;
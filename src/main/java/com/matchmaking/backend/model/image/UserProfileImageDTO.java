@@ -13,6 +13,7 @@ public class UserProfileImageDTO {
     private String avatarUrl;
     private boolean isAvatar;
     private int displayOrder;
+    private ImageStatus status;
 
     // Image dimensions
     private Integer originalWidth;
@@ -0,0 +1,21 @@
+package com.matchmaking.backend.model.job;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BackgroundJobDTO {
+    private String id;
+    private String type;
+    private BackgroundJobStatus status;
+    private long processed;
+    private long total;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private String error;
+}
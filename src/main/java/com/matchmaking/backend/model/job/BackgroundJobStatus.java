@@ -0,0 +1,7 @@
+package com.matchmaking.backend.model.job;
+
+public enum BackgroundJobStatus {
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
@@ -41,6 +41,10 @@ public class Notification {
     @Column(name = "reference_id")
     private Long referenceId;
 
+    // profil, do którego prowadzi powiadomienie (np. polecony profil) - ustalany przy tworzeniu
+    @Column(name = "target_profile_id")
+    private Long targetProfileId;
+
     @Column(nullable = false, updatable = false)
     @CreatedDate
     private LocalDateTime createdAt;
@@ -0,0 +1,22 @@
+package com.matchmaking.backend.model.notification;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Zdarzenie domenowe żądające utworzenia powiadomienia.
+ * Zapisywane asynchronicznie przez {@code NotificationBatchWriter} po commicie transakcji źródłowej
+ * (operacje zbiorcze zapisują je wsadowo w swojej transakcji).
+ */
+@Data
+@AllArgsConstructor
+public class NotificationEvent {
+    private Long userId;
+    private NotificationType type;
+    private String content;
+    private Long referenceId;
+    private Long targetProfileId;
+    private LocalDateTime createdAt;
+}
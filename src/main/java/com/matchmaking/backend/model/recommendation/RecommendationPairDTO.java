@@ -0,0 +1,13 @@
+package com.matchmaking.backend.model.recommendation;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecommendationPairDTO {
+    private Long firstProfileId;
+    private Long secondProfileId;
+}
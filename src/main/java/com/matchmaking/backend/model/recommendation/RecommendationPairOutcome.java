@@ -0,0 +1,9 @@
+package com.matchmaking.backend.model.recommendation;
+
+public enum RecommendationPairOutcome {
+    CREATED,
+    ALREADY_EXISTS,
+    DUPLICATE_IN_REQUEST,
+    PROFILE_NOT_FOUND,
+    INVALID_PAIR
+}
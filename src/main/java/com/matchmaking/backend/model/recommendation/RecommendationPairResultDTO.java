@@ -0,0 +1,16 @@
+package com.matchmaking.backend.model.recommendation;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecommendationPairResultDTO {
+    private Long firstProfileId;
+    private Long secondProfileId;
+    private RecommendationPairOutcome outcome;
+    // ID utworzonej lub istniejącej rekomendacji
+    private Long recommendationId;
+}
@@ -18,7 +18,12 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
-@Table(name = "user_recommendations")
+@Table(name = "user_recommendations", indexes = {
+        // para w postaci kanonicznej (firstProfile.id < secondProfile.id) - jedna rekomendacja na parę profili
+        @Index(name = "uk_user_recommendations_pair", columnList = "first_profile_id, second_profile_id", unique = true),
+        // strona rekomendacji profilu: first_profile_id obsługuje prefiks indeksu pary, second_profile_id - ten indeks
+        @Index(name = "idx_user_recommendations_second_profile", columnList = "second_profile_id")
+})
 @EntityListeners(AuditingEntityListener.class)
 public class UserRecommendation {
 
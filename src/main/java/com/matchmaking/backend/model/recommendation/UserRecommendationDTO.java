@@ -1,16 +1,40 @@
 package com.matchmaking.backend.model.recommendation;
 
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
 
 @Data
+@NoArgsConstructor
 public class UserRecommendationDTO {
     private Long id;
     private Long recommendedProfileId;
     private String recommendedProfileName;
+    private String recommendedProfilePhotoUrl;
     private RecommendationStatus status;
     private LocalDateTime createdAt;
     private LocalDateTime viewedAt;
     private Long createdById;
+
+    /**
+     * Projekcja strony rekomendacji (zapytanie z wyrażeniem konstruktora); URL zdjęcia uzupełniany osobno.
+     */
+    public UserRecommendationDTO(
+            Long id,
+            Long recommendedProfileId,
+            String recommendedProfileName,
+            RecommendationStatus status,
+            LocalDateTime createdAt,
+            LocalDateTime viewedAt,
+            Long createdById
+    ) {
+        this.id = id;
+        this.recommendedProfileId = recommendedProfileId;
+        this.recommendedProfileName = recommendedProfileName;
+        this.status = status;
+        this.createdAt = createdAt;
+        this.viewedAt = viewedAt;
+        this.createdById = createdById;
+    }
 }
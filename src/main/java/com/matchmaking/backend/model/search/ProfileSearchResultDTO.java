@@ -0,0 +1,16 @@
+package com.matchmaking.backend.model.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProfileSearchResultDTO {
+    private Long profileId;
+    private String firstName;
+    private String lastName;
+    private String photoUrl;
+    private float score;
+}
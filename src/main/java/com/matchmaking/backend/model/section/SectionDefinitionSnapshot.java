@@ -0,0 +1,31 @@
+package com.matchmaking.backend.model.section;
+
+import lombok.Value;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Niezmienna migawka definicji sekcji profilu.
+ * Podmieniana w całości (copy-on-write) po każdej zmianie definicji; {@code version} rośnie monotonicznie.
+ */
+@Value
+public class SectionDefinitionSnapshot {
+
+    long version;
+
+    // widoczne definicje w kolejności wyświetlania
+    List<Definition> visible;
+
+    // wszystkie definicje (także niewidoczne) po ID
+    Map<Long, Definition> byId;
+
+    @Value
+    public static class Definition {
+        Long id;
+        String name;
+        int displayOrder;
+        boolean required;
+        boolean visible;
+    }
+}
@@ -1,8 +1,12 @@
 package com.matchmaking.backend.model.section;
 
+import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 @Data
+@NoArgsConstructor
+@AllArgsConstructor
 public class UserProfileSectionContentRequestDTO {
     private Long sectionId;
     private String sectionName;
@@ -10,4 +10,7 @@ public class UserProfileSectionDefinitionDTO {
     private boolean required;
     private boolean visible;
     private String description;
+
+    // ID zadania inicjalizującego treści sekcji dla istniejących profili (tylko przy tworzeniu)
+    private String initializationJobId;
 }
\ No newline at end of file
@@ -1,29 +1,162 @@
 package com.matchmaking.backend.repository;
 
-import com.matchmaking.backend.model.profile.UserProfile;
 import com.matchmaking.backend.model.chat.Conversation;
+import com.matchmaking.backend.model.chat.ConversationInboxView;
 import org.springframework.data.domain.Page;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.domain.Pageable;
 
-
+import java.time.LocalDateTime;
 import java.util.Optional;
 
 public interface ConversationRepository extends JpaRepository<Conversation, Long> {
 
-    @Query("SELECT c FROM Conversation c WHERE " +
-            "(c.firstUser = :profile OR c.secondUser = :profile) " +
-            "ORDER BY c.lastMessageAt DESC")
-    Page<Conversation> findConversationsByProfile(UserProfile profile, Pageable pageable);
+    /**
+     * Strona skrzynki odbiorczej w jednym zapytaniu: rozmówca, podgląd ostatniej wiadomości
+     * i liczba nieprzeczytanych wiadomości (z pól zdenormalizowanych, bez agregacji messages).
+     */
+    @Query(value = "SELECT new com.matchmaking.backend.model.chat.ConversationInboxView(" +
+            "c.id, other.id, other.firstName, other.lastName, c.lastMessagePreview, c.lastMessageAt, " +
+            "CASE WHEN c.firstUser.id = :profileId THEN c.unreadCountFirst ELSE c.unreadCountSecond END) " +
+            "FROM Conversation c JOIN UserProfile other ON other.id = " +
+            "CASE WHEN c.firstUser.id = :profileId THEN c.secondUser.id ELSE c.firstUser.id END " +
+            "WHERE c.firstUser.id = :profileId OR c.secondUser.id = :profileId " +
+            "ORDER BY c.lastMessageAt DESC",
+            countQuery = "SELECT COUNT(c) FROM Conversation c " +
+                    "WHERE c.firstUser.id = :profileId OR c.secondUser.id = :profileId")
+    Page<ConversationInboxView> findInboxPage(Long profileId, Pageable pageable);
+
+    /**
+     * Konwersacja pary profili w postaci kanonicznej (firstId < secondId) - jeden odczyt indeksu unikalnego.
+     */
+    @Query("SELECT c FROM Conversation c WHERE c.firstUser.id = :firstId AND c.secondUser.id = :secondId")
+    Optional<Conversation> findByPair(Long firstId, Long secondId);
+
+    /**
+     * Tworzy konwersację pary (firstId < secondId), jeśli jeszcze nie istnieje - bezpieczne przy równoległych wywołaniach.
+     *
+     * @return 1, jeśli konwersacja została utworzona
+     */
+    @Modifying
+    @Query(value = "INSERT INTO conversations (first_user_id, second_user_id, created_at, updated_at, last_message_at, " +
+            "unread_count_first, unread_count_second) VALUES (:firstId, :secondId, :now, :now, :now, 0, 0) " +
+            "ON CONFLICT (first_user_id, second_user_id) DO NOTHING",
+            nativeQuery = true)
+    int insertIfAbsent(Long firstId, Long secondId, LocalDateTime now);
+
+    @Query("SELECT COALESCE(SUM(CASE WHEN c.firstUser.id = :profileId " +
+            "THEN c.unreadCountFirst ELSE c.unreadCountSecond END), 0) " +
+            "FROM Conversation c WHERE c.firstUser.id = :profileId OR c.secondUser.id = :profileId")
+    long sumUnreadCountByProfile(Long profileId);
+
+    /**
+     * Atomowo zapisuje w konwersacji dane nowej wiadomości i zwiększa licznik nieprzeczytanych odbiorcy.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Conversation c SET c.lastMessageAt = :sentAt, c.updatedAt = :sentAt, " +
+            "c.lastMessagePreview = :preview, c.lastMessageSenderId = :senderId, " +
+            "c.unreadCountFirst = c.unreadCountFirst + CASE WHEN c.firstUser.id = :senderId THEN 0 ELSE 1 END, " +
+            "c.unreadCountSecond = c.unreadCountSecond + CASE WHEN c.secondUser.id = :senderId THEN 0 ELSE 1 END " +
+            "WHERE c.id = :conversationId")
+    int recordMessageSent(Long conversationId, Long senderId, String preview, LocalDateTime sentAt);
+
+    /**
+     * Atomowo zmniejsza licznik nieprzeczytanych wiadomości czytającego o liczbę oznaczonych wiadomości.
+     * Odejmowanie (zamiast zerowania) nie gubi wiadomości wysłanych w międzyczasie.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Conversation c SET " +
+            "c.unreadCountFirst = CASE WHEN c.firstUser.id <> :readerId THEN c.unreadCountFirst " +
+            "WHEN c.unreadCountFirst > :count THEN c.unreadCountFirst - :count ELSE 0 END, " +
+            "c.unreadCountSecond = CASE WHEN c.secondUser.id <> :readerId THEN c.unreadCountSecond " +
+            "WHEN c.unreadCountSecond > :count THEN c.unreadCountSecond - :count ELSE 0 END " +
+            "WHERE c.id = :conversationId")
+    int decrementUnreadCount(Long conversationId, Long readerId, int count);
+
+    /**
+     * Czy istnieją konwersacje z wiadomościami, ale bez uzupełnionych pól zdenormalizowanych
+     * (konwersacje bez wiadomości mają podgląd NULL na stałe i nie wymagają uzupełnienia).
+     */
+    @Query("SELECT CASE WHEN COUNT(c) > 0 THEN true ELSE false END FROM Conversation c " +
+            "WHERE c.lastMessagePreview IS NULL AND EXISTS (SELECT 1 FROM Message m WHERE m.conversation = c)")
+    boolean existsMissingDenormalizedFields();
+
+    /**
+     * Jednorazowe uzupełnienie pól zdenormalizowanych dla konwersacji sprzed ich wprowadzenia.
+     */
+    @Modifying
+    @Query(value = "UPDATE conversations c SET " +
+            "last_message_preview = CASE WHEN length(lm.content) > 50 " +
+            "THEN substring(lm.content from 1 for 47) || '...' ELSE lm.content END, " +
+            "last_message_sender_id = lm.sender_id, " +
+            "unread_count_first = (SELECT count(*) FROM messages m WHERE m.conversation_id = c.id " +
+            "AND m.recipient_id = c.first_user_id AND m.read = false), " +
+            "unread_count_second = (SELECT count(*) FROM messages m WHERE m.conversation_id = c.id " +
+            "AND m.recipient_id = c.second_user_id AND m.read = false) " +
+            "FROM (SELECT DISTINCT ON (conversation_id) conversation_id, content, sender_id " +
+            "FROM messages ORDER BY conversation_id, id DESC) lm " +
+            "WHERE lm.conversation_id = c.id AND c.last_message_preview IS NULL",
+            nativeQuery = true)
+    int backfillDenormalizedFields();
+
+    // Migracja do par kanonicznych - konwersacje tej samej pary są scalane w najstarszą
+
+    @Query(value = "SELECT count(*) > 0 FROM pg_indexes WHERE indexname = 'uk_conversations_pair'", nativeQuery = true)
+    boolean existsPairIndex();
+
+    @Query("SELECT CASE WHEN COUNT(c) > 0 THEN true ELSE false END FROM Conversation c " +
+            "WHERE c.firstUser.id > c.secondUser.id")
+    boolean existsNonCanonicalPair();
+
+    /**
+     * Oznacza konwersacje, do których zostaną scalone duplikaty, do ponownego przeliczenia pól zdenormalizowanych.
+     */
+    @Modifying
+    @Query(value = "UPDATE conversations SET last_message_preview = NULL WHERE id IN (" +
+            "SELECT min(id) FROM conversations " +
+            "GROUP BY LEAST(first_user_id, second_user_id), GREATEST(first_user_id, second_user_id) " +
+            "HAVING count(*) > 1)",
+            nativeQuery = true)
+    int markDuplicateTargets();
+
+    @Modifying
+    @Query(value = "UPDATE messages m SET conversation_id = d.keep_id FROM (" +
+            "SELECT id, min(id) OVER (PARTITION BY LEAST(first_user_id, second_user_id), " +
+            "GREATEST(first_user_id, second_user_id)) AS keep_id FROM conversations) d " +
+            "WHERE m.conversation_id = d.id AND d.id <> d.keep_id",
+            nativeQuery = true)
+    int moveDuplicateMessages();
+
+    @Modifying
+    @Query(value = "DELETE FROM conversations c USING conversations k " +
+            "WHERE LEAST(k.first_user_id, k.second_user_id) = LEAST(c.first_user_id, c.second_user_id) " +
+            "AND GREATEST(k.first_user_id, k.second_user_id) = GREATEST(c.first_user_id, c.second_user_id) " +
+            "AND k.id < c.id",
+            nativeQuery = true)
+    int deleteDuplicates();
+
+    /**
+     * Zamienia strony par niekanonicznych - razem z licznikami nieprzeczytanych, które są przypisane do stron.
+     */
+    @Modifying
+    @Query(value = "UPDATE conversations SET first_user_id = second_user_id, second_user_id = first_user_id, " +
+            "unread_count_first = unread_count_second, unread_count_second = unread_count_first " +
+            "WHERE first_user_id > second_user_id",
+            nativeQuery = true)
+    int swapNonCanonicalPairs();
 
-    @Query("SELECT c FROM Conversation c WHERE " +
-            "(c.firstUser = :firstProfile AND c.secondUser = :secondProfile) OR " +
-            "(c.firstUser = :secondProfile AND c.secondUser = :firstProfile)")
-    Optional<Conversation> findConversationBetweenProfiles(UserProfile firstProfile, UserProfile secondProfile);
+    @Modifying
+    @Query(value = "UPDATE conversations c SET last_message_at = m.last_at FROM (" +
+            "SELECT conversation_id, max(created_at) AS last_at FROM messages GROUP BY conversation_id) m " +
+            "WHERE m.conversation_id = c.id AND c.last_message_preview IS NULL",
+            nativeQuery = true)
+    int refreshLastMessageAtOfMarked();
 
-    @Query("SELECT COUNT(m) FROM Message m WHERE m.conversation IN " +
-            "(SELECT c FROM Conversation c WHERE c.firstUser = :profile OR c.secondUser = :profile) " +
-            "AND m.recipient = :profile AND m.read = false")
-    long countUnreadMessagesByProfile(UserProfile profile);
+    @Modifying
+    @Query(value = "CREATE UNIQUE INDEX IF NOT EXISTS uk_conversations_pair " +
+            "ON conversations (first_user_id, second_user_id)",
+            nativeQuery = true)
+    void createPairIndex();
 }
\ No newline at end of file
@@ -0,0 +1,12 @@
+package com.matchmaking.backend.repository;
+
+import com.matchmaking.backend.model.image.ImageCleanupTask;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface ImageCleanupTaskRepository extends JpaRepository<ImageCleanupTask, Long> {
+
+    List<ImageCleanupTask> findTop500ByNextAttemptAtLessThanEqualOrderByNextAttemptAtAsc(LocalDateTime now);
+}
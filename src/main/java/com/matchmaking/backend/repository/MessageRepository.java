@@ -1,21 +1,41 @@
 package com.matchmaking.backend.repository;
 
-import com.matchmaking.backend.model.profile.UserProfile;
 import com.matchmaking.backend.model.chat.Conversation;
 import com.matchmaking.backend.model.chat.Message;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 
-import java.util.List;
+import java.time.LocalDateTime;
 
 public interface MessageRepository extends JpaRepository<Message, Long> {
 
     Page<Message> findByConversationOrderByCreatedAtDesc(Conversation conversation, Pageable pageable);
 
-    @Query("SELECT COUNT(m) FROM Message m WHERE m.conversation = :conversation AND m.recipient = :userProfile AND m.read = false")
-    long countUnreadMessagesInConversation(Conversation conversation, UserProfile userProfile);
+    /**
+     * Pierwsza strona wiadomości w porządku keyset (createdAt, id) - bez zapytania COUNT.
+     */
+    Slice<Message> findByConversationOrderByCreatedAtDescIdDesc(Conversation conversation, Pageable pageable);
 
-    List<Message> findByConversationAndRecipientAndReadFalse(Conversation conversation, UserProfile recipient);
+    /**
+     * Kolejna strona wiadomości: starsze niż pozycja kursora (createdAt, id).
+     * Korzysta z indeksu idx_messages_conversation_created_id, więc koszt nie rośnie z głębokością przewijania.
+     */
+    @Query("SELECT m FROM Message m WHERE m.conversation = :conversation " +
+            "AND (m.createdAt < :createdAt OR (m.createdAt = :createdAt AND m.id < :id)) " +
+            "ORDER BY m.createdAt DESC, m.id DESC")
+    Slice<Message> findOlderThan(Conversation conversation, LocalDateTime createdAt, Long id, Pageable pageable);
+
+    /**
+     * Oznacza jednym zapytaniem wszystkie nieprzeczytane wiadomości odbiorcy w konwersacji jako przeczytane.
+     *
+     * @return liczba oznaczonych wiadomości
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Message m SET m.read = true, m.readAt = :readAt " +
+            "WHERE m.conversation.id = :conversationId AND m.recipient.id = :recipientId AND m.read = false")
+    int markAsRead(Long conversationId, Long recipientId, LocalDateTime readAt);
 }
\ No newline at end of file
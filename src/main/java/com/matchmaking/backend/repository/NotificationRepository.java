@@ -5,9 +5,33 @@ import com.matchmaking.backend.model.notification.Notification;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 
 public interface NotificationRepository extends JpaRepository<Notification, Long> {
     Page<Notification> findByUserOrderByCreatedAtDesc(User user, Pageable pageable);
+    Page<Notification> findByUserIdOrderByCreatedAtDesc(Long userId, Pageable pageable);
     long countByUserAndReadFalse(User user);
 
+    /**
+     * Czy istnieją powiadomienia o rekomendacjach bez targetProfileId, które da się jeszcze uzupełnić
+     * (powiadomienia o usuniętych rekomendacjach pozostają bez celu na stałe).
+     */
+    @Query("SELECT CASE WHEN COUNT(n) > 0 THEN true ELSE false END FROM Notification n " +
+            "WHERE n.type = com.matchmaking.backend.model.notification.NotificationType.NEW_RECOMMENDATION " +
+            "AND n.targetProfileId IS NULL " +
+            "AND EXISTS (SELECT 1 FROM UserRecommendation r WHERE r.id = n.referenceId)")
+    boolean existsResolvableRecommendationWithoutTarget();
+
+    /**
+     * Uzupełnia targetProfileId powiadomień o rekomendacjach utworzonych przed wprowadzeniem tej kolumny.
+     */
+    @Modifying
+    @Query(value = "UPDATE notifications n SET target_profile_id = " +
+            "CASE WHEN fp.user_id = n.user_id THEN r.second_profile_id ELSE r.first_profile_id END " +
+            "FROM user_recommendations r JOIN user_profiles fp ON fp.id = r.first_profile_id " +
+            "WHERE r.id = n.reference_id AND n.type = 'NEW_RECOMMENDATION' AND n.target_profile_id IS NULL",
+            nativeQuery = true)
+    int backfillRecommendationTargets();
+
 }
\ No newline at end of file
@@ -0,0 +1,29 @@
+package com.matchmaking.backend.repository;
+
+import com.matchmaking.backend.model.auth.RefreshToken;
+import com.matchmaking.backend.model.auth.User;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
+    Optional<RefreshToken> findByTokenHash(String tokenHash);
+
+    /**
+     * Warunkowo unieważnia aktywny token - z dwóch równoległych rotacji tego samego tokenu
+     * tylko jedna zmieni wiersz.
+     *
+     * @return liczba zmienionych wierszy (0 - token nieważny lub już zużyty)
+     */
+    @Modifying
+    @Query("UPDATE RefreshToken t SET t.revokedAt = :now " +
+            "WHERE t.tokenHash = :tokenHash AND t.revokedAt IS NULL AND t.expiresAt > :now")
+    int revokeIfActive(String tokenHash, LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE RefreshToken t SET t.revokedAt = :now WHERE t.user = :user AND t.revokedAt IS NULL")
+    int revokeAllByUser(User user, LocalDateTime now);
+}
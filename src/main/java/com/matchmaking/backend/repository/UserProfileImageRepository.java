@@ -3,8 +3,11 @@ package com.matchmaking.backend.repository;
 import com.matchmaking.backend.model.profile.UserProfile;
 import com.matchmaking.backend.model.image.UserProfileImage;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -16,4 +19,24 @@ public interface UserProfileImageRepository extends JpaRepository<UserProfileIma
 
 
     List<UserProfileImage> findByUserProfile(UserProfile userProfile);
+
+    Optional<UserProfileImage> findByPublicId(String publicId);
+
+    /**
+     * Avatary wielu profili w jednym zapytaniu: [id profilu, URL avatara, URL miniatury].
+     */
+    @Query("SELECT i.userProfile.id, i.avatarUrl, i.thumbnailUrl FROM UserProfileImage i " +
+            "WHERE i.userProfile.id IN :profileIds AND i.isAvatar = true")
+    List<Object[]> findAvatarUrlsByProfileIds(Collection<Long> profileIds);
+
+    /**
+     * Kolejna porcja zdjęć bez zapisanych metadanych (stronicowanie po ID).
+     */
+    List<UserProfileImage> findTop100ByWidthIsNullAndPublicIdIsNotNullAndIdGreaterThanOrderByIdAsc(Long id);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE UserProfileImage i SET i.width = :width, i.height = :height, " +
+            "i.bytes = :bytes, i.format = :format WHERE i.id = :id")
+    int updateMetadata(Long id, Integer width, Integer height, Long bytes, String format);
 }
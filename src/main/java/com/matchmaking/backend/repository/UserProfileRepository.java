@@ -2,6 +2,10 @@ package com.matchmaking.backend.repository;
 
 import com.matchmaking.backend.model.profile.UserProfile;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 public interface UserProfileRepository extends JpaRepository<UserProfile, Long> {
+
+    @Query("SELECT COALESCE(MAX(p.id), 0) FROM UserProfile p")
+    long findMaxId();
 }
\ No newline at end of file
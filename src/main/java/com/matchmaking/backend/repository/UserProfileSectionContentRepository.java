@@ -4,6 +4,8 @@ import com.matchmaking.backend.model.profile.UserProfile;
 import com.matchmaking.backend.model.section.UserProfileSectionContent;
 import com.matchmaking.backend.model.section.UserProfileSectionDefinition;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 
 import java.util.List;
 import java.util.Optional;
@@ -14,4 +16,36 @@ public interface UserProfileSectionContentRepository extends JpaRepository<UserP
             UserProfile userProfile,
             UserProfileSectionDefinition sectionDefinition);
     List<UserProfileSectionContent> findBySectionDefinition(UserProfileSectionDefinition sectionDefinition);
+
+    /**
+     * Treści sekcji profilu jako pary [ID definicji, treść] - bez odczytu definicji
+     * (te pochodzą z {@code SectionDefinitionCache}).
+     */
+    @Query("SELECT c.sectionDefinition.id, c.content FROM UserProfileSectionContent c " +
+            "WHERE c.userProfile.id = :profileId ORDER BY c.id ASC")
+    List<Object[]> findContentsByProfileId(Long profileId);
+
+    /**
+     * Tworzy pustą treść sekcji dla profili o ID z zakresu (fromId, toId], które jej jeszcze nie mają.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO user_profile_section_contents " +
+            "(user_profile_id, section_definition_id, content, created_at, updated_at) " +
+            "SELECT p.id, :definitionId, '', now(), now() FROM user_profiles p " +
+            "WHERE p.id > :fromId AND p.id <= :toId AND NOT EXISTS (" +
+            "SELECT 1 FROM user_profile_section_contents c " +
+            "WHERE c.user_profile_id = p.id AND c.section_definition_id = :definitionId)",
+            nativeQuery = true)
+    int insertEmptyContentForProfileRange(Long definitionId, Long fromId, Long toId);
+
+    /**
+     * Usuwa porcję pustych treści sekcji (tryb rzadki - brak wiersza oznacza pustą treść).
+     *
+     * @return liczba usuniętych wierszy
+     */
+    @Modifying
+    @Query(value = "DELETE FROM user_profile_section_contents WHERE id IN (" +
+            "SELECT id FROM user_profile_section_contents WHERE content IS NULL OR content = '' LIMIT :limit)",
+            nativeQuery = true)
+    int deleteEmptyContents(int limit);
 }
\ No newline at end of file
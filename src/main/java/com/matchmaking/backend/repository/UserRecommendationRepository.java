@@ -1,21 +1,99 @@
 package com.matchmaking.backend.repository;
 
-import com.matchmaking.backend.model.profile.UserProfile;
 import com.matchmaking.backend.model.recommendation.UserRecommendation;
+import com.matchmaking.backend.model.recommendation.UserRecommendationDTO;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface UserRecommendationRepository extends JpaRepository<UserRecommendation, Long> {
 
-    @Query("SELECT r FROM UserRecommendation r WHERE (r.firstProfile = :profile OR r.secondProfile = :profile)")
-    Page<UserRecommendation> findAllByProfile(UserProfile profile, Pageable pageable);
+    /**
+     * Strona rekomendacji profilu w jednym zapytaniu: pola DTO bez ładowania encji profili i autora
+     * ({@code createdBy.id} to kolumna klucza obcego, bez złączenia).
+     */
+    @Query(value = "SELECT new com.matchmaking.backend.model.recommendation.UserRecommendationDTO(" +
+            "r.id, other.id, CONCAT(COALESCE(other.firstName, ''), ' ', COALESCE(other.lastName, '')), " +
+            "r.status, r.createdAt, r.viewedAt, r.createdBy.id) " +
+            "FROM UserRecommendation r JOIN UserProfile other ON other.id = " +
+            "CASE WHEN r.firstProfile.id = :profileId THEN r.secondProfile.id ELSE r.firstProfile.id END " +
+            "WHERE r.firstProfile.id = :profileId OR r.secondProfile.id = :profileId " +
+            "ORDER BY r.id DESC",
+            countQuery = "SELECT COUNT(r) FROM UserRecommendation r " +
+                    "WHERE r.firstProfile.id = :profileId OR r.secondProfile.id = :profileId")
+    Page<UserRecommendationDTO> findPageByProfileId(Long profileId, Pageable pageable);
 
-    @Query("SELECT r FROM UserRecommendation r WHERE " +
-            "(r.firstProfile = :firstProfile AND r.secondProfile = :secondProfile) OR " +
-            "(r.firstProfile = :secondProfile AND r.secondProfile = :firstProfile)")
-    Optional<UserRecommendation> findByProfiles(UserProfile firstProfile, UserProfile secondProfile);
+    /**
+     * Rekomendacja pary profili w postaci kanonicznej (firstId < secondId) - jeden odczyt indeksu unikalnego.
+     */
+    @Query("SELECT r FROM UserRecommendation r WHERE r.firstProfile.id = :firstId AND r.secondProfile.id = :secondId")
+    Optional<UserRecommendation> findByPair(Long firstId, Long secondId);
+
+    /**
+     * Tworzy rekomendację pary (firstId < secondId), jeśli jeszcze nie istnieje - bezpieczne przy równoległych wywołaniach.
+     *
+     * @return 1, jeśli rekomendacja została utworzona
+     */
+    @Modifying
+    @Query(value = "INSERT INTO user_recommendations (first_profile_id, second_profile_id, status, created_at, created_by) " +
+            "VALUES (:firstId, :secondId, 'NEW', :now, :createdBy) " +
+            "ON CONFLICT (first_profile_id, second_profile_id) DO NOTHING",
+            nativeQuery = true)
+    int insertIfAbsent(Long firstId, Long secondId, LocalDateTime now, Long createdBy);
+
+    /**
+     * Dla podanych rekomendacji zwraca pary [id rekomendacji, id profilu polecanego użytkownikowi].
+     */
+    @Query("SELECT r.id, CASE WHEN r.firstProfile.user.id = :userId " +
+            "THEN r.secondProfile.id ELSE r.firstProfile.id END " +
+            "FROM UserRecommendation r WHERE r.id IN :ids")
+    List<Object[]> findTargetProfileIds(Collection<Long> ids, Long userId);
+
+    // Migracja do par kanonicznych - z duplikatów tej samej pary zostaje najstarsza rekomendacja
+
+    @Query(value = "SELECT count(*) > 0 FROM pg_indexes WHERE indexname = 'uk_user_recommendations_pair'",
+            nativeQuery = true)
+    boolean existsPairIndex();
+
+    @Query("SELECT CASE WHEN COUNT(r) > 0 THEN true ELSE false END FROM UserRecommendation r " +
+            "WHERE r.firstProfile.id > r.secondProfile.id")
+    boolean existsNonCanonicalPair();
+
+    /**
+     * Przepina powiadomienia o usuwanych duplikatach na rekomendację, która zostaje.
+     */
+    @Modifying
+    @Query(value = "UPDATE notifications n SET reference_id = d.keep_id FROM (" +
+            "SELECT id, min(id) OVER (PARTITION BY LEAST(first_profile_id, second_profile_id), " +
+            "GREATEST(first_profile_id, second_profile_id)) AS keep_id FROM user_recommendations) d " +
+            "WHERE n.type = 'NEW_RECOMMENDATION' AND n.reference_id = d.id AND d.id <> d.keep_id",
+            nativeQuery = true)
+    int repointDuplicateNotifications();
+
+    @Modifying
+    @Query(value = "DELETE FROM user_recommendations r USING user_recommendations k " +
+            "WHERE LEAST(k.first_profile_id, k.second_profile_id) = LEAST(r.first_profile_id, r.second_profile_id) " +
+            "AND GREATEST(k.first_profile_id, k.second_profile_id) = GREATEST(r.first_profile_id, r.second_profile_id) " +
+            "AND k.id < r.id",
+            nativeQuery = true)
+    int deleteDuplicates();
+
+    @Modifying
+    @Query(value = "UPDATE user_recommendations SET first_profile_id = second_profile_id, " +
+            "second_profile_id = first_profile_id WHERE first_profile_id > second_profile_id",
+            nativeQuery = true)
+    int swapNonCanonicalPairs();
+
+    @Modifying
+    @Query(value = "CREATE UNIQUE INDEX IF NOT EXISTS uk_user_recommendations_pair " +
+            "ON user_recommendations (first_profile_id, second_profile_id)",
+            nativeQuery = true)
+    void createPairIndex();
 }
@@ -2,12 +2,14 @@ package com.matchmaking.backend.service;
 
 import com.matchmaking.backend.model.auth.Role;
 import com.matchmaking.backend.model.auth.User;
+import com.matchmaking.backend.model.image.UserProfileImage;
 import com.matchmaking.backend.model.profile.UserProfile;
 import com.matchmaking.backend.model.admin.AdminUserDTO;
 import com.matchmaking.backend.model.admin.AdminUserListDTO;
 import com.matchmaking.backend.repository.UserRepository;
 import com.matchmaking.backend.service.profile.UserProfileCreatorService;
-import com.matchmaking.backend.service.image.CloudinaryService;
+import com.matchmaking.backend.service.image.ImageCleanupWorker;
+import com.matchmaking.backend.service.search.ProfileSearchIndex;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
@@ -17,6 +19,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 @Service
@@ -25,8 +28,11 @@ public class AdminService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
-    private final CloudinaryService cloudinaryService;
+    private final ImageCleanupWorker imageCleanupWorker;
     private final UserProfileCreatorService userProfileCreatorService;
+    private final UserPrincipalCache principalCache;
+    private final RefreshTokenService refreshTokenService;
+    private final ProfileSearchIndex searchIndex;
 
     @Transactional(readOnly = true)
     public Page<AdminUserListDTO> getUsers(int page, int size, String search) {
@@ -79,6 +85,7 @@ public class AdminService {
 
         // Zapisanie użytkownika
         User savedUser = userRepository.save(user);
+        searchIndex.profileChanged(profile.getId());
         return mapUserToDTO(savedUser);
     }
 
@@ -102,6 +109,11 @@ public class AdminService {
         profile.setBio(userDTO.getBio());
 
         User updatedUser = userRepository.save(user);
+        searchIndex.profileChanged(profile.getId());
+        if (!user.isEnabled()) {
+            refreshTokenService.revokeAll(user);
+        }
+        principalCache.invalidate(user.getEmail());
         return mapUserToDTO(updatedUser);
     }
 
@@ -109,16 +121,15 @@ public class AdminService {
     public void deleteUser(Long id) {
         User user = findUserById(id);
 
-        // Usunięcie zdjęć z Cloudinary
-        user.getProfile().getImages().forEach(image -> {
-            try {
-                cloudinaryService.deleteImage(image.getPublicId());
-            } catch (Exception e) {
-                // Logowanie błędu
-            }
-        });
+        // usunięcie plików zdjęć po commicie, zbiorczo i z ponowieniami (outbox)
+        imageCleanupWorker.schedule(user.getProfile().getImages().stream()
+                .map(UserProfileImage::getPublicId)
+                .filter(Objects::nonNull)
+                .toList());
 
         userRepository.delete(user);
+        principalCache.invalidate(user.getEmail());
+        searchIndex.profileChanged(user.getProfile().getId());
     }
 
     @Transactional
@@ -126,6 +137,7 @@ public class AdminService {
         User user = findUserById(id);
         user.setRole(role);
         userRepository.save(user);
+        principalCache.invalidate(user.getEmail());
     }
 
     @Transactional
@@ -133,6 +145,11 @@ public class AdminService {
         User user = findUserById(id);
         user.setEnabled(enabled);
         userRepository.save(user);
+        if (!enabled) {
+            // zablokowane konto nie może odświeżyć access tokenu
+            refreshTokenService.revokeAll(user);
+        }
+        principalCache.invalidate(user.getEmail());
     }
 
     private User findUserById(Long id) {
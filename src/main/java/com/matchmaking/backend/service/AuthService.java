@@ -3,6 +3,7 @@ package com.matchmaking.backend.service;
 import com.matchmaking.backend.model.auth.*;
 import com.matchmaking.backend.model.profile.UserProfile;
 import com.matchmaking.backend.service.profile.UserProfileCreatorService;
+import io.jsonwebtoken.Claims;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -31,6 +32,9 @@ public class AuthService {
     private final MailService mailService;
     private final PasswordEncoder passwordEncoder;
     private final UserProfileCreatorService userProfileCreatorService;
+    private final UserPrincipalCache principalCache;
+    private final RefreshTokenService refreshTokenService;
+    private final TokenRevocationService tokenRevocationService;
 
 
     @Transactional
@@ -116,11 +120,13 @@ public class AuthService {
                     return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Account not verified");
                 }
 
-                String token = jwtService.generateToken(userDetails.getUsername());
+                String token = jwtService.generateToken(user);
+                String refreshToken = refreshTokenService.issue(user);
 
                 return ResponseEntity.ok(
                         new AuthResponseDTO(
                                 token,
+                                refreshToken,
                                 user.getEmail(),
                                 user.getRole()));
 
@@ -147,6 +153,45 @@ public class AuthService {
         }
     }
 
+    /**
+     * Rotuje refresh token: zużywa przesłany token i wystawia nową parę access + refresh token.
+     */
+    @Transactional
+    public ResponseEntity<?> refreshToken(RefreshTokenRequestDTO request) {
+        Optional<User> userOpt = refreshTokenService.consume(request.getRefreshToken());
+
+        if (userOpt.isEmpty() || !userOpt.get().isEnabled()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Nieprawidłowy lub wygasły refresh token");
+        }
+
+        User user = userOpt.get();
+        return ResponseEntity.ok(
+                new AuthResponseDTO(
+                        jwtService.generateToken(user),
+                        refreshTokenService.issue(user),
+                        user.getEmail(),
+                        user.getRole()));
+    }
+
+    /**
+     * Wylogowuje użytkownika: unieważnia refresh token oraz bieżący access token.
+     */
+    @Transactional
+    public ResponseEntity<?> logout(String accessToken, RefreshTokenRequestDTO request) {
+        if (request != null && request.getRefreshToken() != null) {
+            refreshTokenService.revoke(request.getRefreshToken());
+        }
+
+        if (accessToken != null) {
+            Claims claims = jwtService.parseToken(accessToken);
+            if (claims != null) {
+                tokenRevocationService.revoke(claims.getId(), claims.getExpiration());
+            }
+        }
+
+        return ResponseEntity.ok("Wylogowano pomyślnie");
+    }
+
     @Transactional
     public ResponseEntity<?> changePassword(PasswordChangeDTO request) {
         // Pobierz dane zalogowanego użytkownika z kontekstu bezpieczeństwa
@@ -174,6 +219,8 @@ public class AuthService {
             // Zmiana hasła
             user.setPassword(passwordEncoder.encode(request.getNewPassword()));
             userService.saveUser(user);
+            refreshTokenService.revokeAll(user);
+            principalCache.invalidate(email);
 
             return ResponseEntity.ok("Hasło zostało zmienione pomyślnie");
 
@@ -210,6 +257,7 @@ public class AuthService {
             String oldEmail = user.getEmail();
             user.setEmail(request.getNewEmail());
             userService.saveUser(user);
+            principalCache.invalidate(oldEmail);
 
             // Wysłanie powiadomień
             mailService.sendEmailChangeNotification(oldEmail, request.getNewEmail());
@@ -291,6 +339,8 @@ public class AuthService {
         user.setVerificationCode(null);
         user.setResetTokenExpiration(null); // Wyczyszczenie daty wygaśnięcia
         userService.saveUser(user);
+        refreshTokenService.revokeAll(user);
+        principalCache.invalidate(user.getEmail());
 
         return ResponseEntity.ok("Hasło zostało pomyślnie zmienione");
     }
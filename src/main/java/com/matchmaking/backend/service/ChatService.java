@@ -6,15 +6,26 @@ import com.matchmaking.backend.model.notification.NotificationType;
 import com.matchmaking.backend.repository.ConversationRepository;
 import com.matchmaking.backend.repository.MessageRepository;
 import com.matchmaking.backend.repository.UserProfileRepository;
+import com.matchmaking.backend.service.image.AvatarResolver;
 import com.matchmaking.backend.service.notification.NotificationService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -24,16 +35,20 @@ public class ChatService {
     private final MessageRepository messageRepository;
     private final UserProfileRepository userProfileRepository;
     private final NotificationService notificationService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final AvatarResolver avatarResolver;
+
+    private static final int MAX_SLICE_SIZE = 100;
 
     @Transactional(readOnly = true)
     public Page<ConversationDTO> getUserConversations(Long profileId, Pageable pageable) {
 
-        UserProfile currentProfile = getUserProfileById(profileId);
-        Page<Conversation> conversations = conversationRepository
-                .findConversationsByProfile(currentProfile, pageable);
+        Page<ConversationInboxView> inbox = conversationRepository.findInboxPage(profileId, pageable);
+        Map<Long, String> avatars = avatarResolver.resolve(inbox.getContent().stream()
+                .map(ConversationInboxView::getRecipientId)
+                .collect(Collectors.toSet()));
 
-        return conversations.map(conversation ->
-                mapToConversationDTO(conversation, currentProfile));
+        return inbox.map(view -> mapToConversationDTO(view, avatars));
     }
 
     @Transactional(readOnly = true)
@@ -52,6 +67,45 @@ public class ChatService {
         return messages.map(message -> mapToMessageDTO(message, currentProfile));
     }
 
+    /**
+     * Pobiera porcję wiadomości stronicowaną kursorem (keyset po createdAt, id).
+     *
+     * @param cursor kursor z poprzedniej odpowiedzi lub {@code null} dla najnowszych wiadomości
+     */
+    @Transactional(readOnly = true)
+    public MessageSliceDTO getConversationMessagesSlice(
+            Long conversationId,
+            Long profileId,
+            String cursor,
+            int size
+    ) {
+        Conversation conversation = findConversationById(conversationId);
+        validateConversationAccess(conversation, profileId);
+
+        UserProfile currentProfile = getUserProfileById(profileId);
+        PageRequest limit = PageRequest.of(0, Math.max(1, Math.min(size, MAX_SLICE_SIZE)));
+
+        Slice<Message> slice;
+        if (cursor == null || cursor.isBlank()) {
+            slice = messageRepository.findByConversationOrderByCreatedAtDescIdDesc(conversation, limit);
+        } else {
+            MessageCursor position = decodeCursor(cursor);
+            slice = messageRepository.findOlderThan(conversation, position.createdAt(), position.id(), limit);
+        }
+
+        List<Message> messages = slice.getContent();
+        String nextCursor = null;
+        if (slice.hasNext() && !messages.isEmpty()) {
+            nextCursor = encodeCursor(messages.get(messages.size() - 1));
+        }
+
+        return new MessageSliceDTO(
+                messages.stream().map(message -> mapToMessageDTO(message, currentProfile)).toList(),
+                nextCursor,
+                slice.hasNext()
+        );
+    }
+
     @Transactional
     public MessageDTO sendMessage(
             Long recipientProfileId,
@@ -61,9 +115,7 @@ public class ChatService {
         UserProfile senderProfile = getUserProfileById(senderProfileId);
         UserProfile recipientProfile = getUserProfileById(recipientProfileId);
 
-        Conversation conversation = conversationRepository
-                .findConversationBetweenProfiles(senderProfile, recipientProfile)
-                .orElseGet(() -> createNewConversation(senderProfile, recipientProfile));
+        Conversation conversation = getOrCreateConversation(senderProfileId, recipientProfileId);
 
         Message message = Message.builder()
                 .conversation(conversation)
@@ -75,16 +127,28 @@ public class ChatService {
 
         message = messageRepository.save(message);
 
-        conversation.setLastMessageAt(LocalDateTime.now());
-        conversationRepository.save(conversation);
+        // liczniki i podgląd aktualizowane atomowo w bazie - encja konwersacji nie jest nadpisywana
+        conversationRepository.recordMessageSent(
+                conversation.getId(),
+                senderProfile.getId(),
+                toPreview(message.getContent()),
+                LocalDateTime.now()
+        );
 
-        notificationService.createNotification(
-                recipientProfile.getUser(),
+        notificationService.publishNotification(
+                recipientProfile.getUser().getId(),
                 NotificationType.MESSAGE,
                 senderProfile.getFirstName() + " wysłał(a) ci wiadomość",
-                conversation.getId()
+                conversation.getId(),
+                senderProfile.getId()
         );
 
+        // push do odbiorcy po commicie (ChatPushListener)
+        eventPublisher.publishEvent(new ChatMessageSentEvent(
+                recipientProfile.getUser().getEmail(),
+                mapToMessageDTO(message, recipientProfile)
+        ));
+
         return mapToMessageDTO(message, senderProfile);
     }
 
@@ -93,86 +157,127 @@ public class ChatService {
         Conversation conversation = findConversationById(conversationId);
         validateConversationAccess(conversation, profileId);
 
-        UserProfile currentProfile = getUserProfileById(profileId);
-        List<Message> unreadMessages = messageRepository
-                .findByConversationAndRecipientAndReadFalse(conversation, currentProfile);
+        UserProfile otherProfile = conversation.getFirstUser().getId().equals(profileId)
+                ? conversation.getSecondUser()
+                : conversation.getFirstUser();
+        String otherEmail = otherProfile.getUser().getEmail();
 
+        // jedno zapytanie UPDATE zamiast ładowania i zapisywania każdej wiadomości osobno
         LocalDateTime now = LocalDateTime.now();
-        unreadMessages.forEach(message -> {
-            message.setRead(true);
-            message.setReadAt(now);
-        });
+        int readCount = messageRepository.markAsRead(conversationId, profileId, now);
+
+        if (readCount > 0) {
+            conversationRepository.decrementUnreadCount(conversationId, profileId, readCount);
 
-        if (!unreadMessages.isEmpty()) {
-            messageRepository.saveAll(unreadMessages);
+            eventPublisher.publishEvent(new ConversationReadEvent(
+                    otherEmail,
+                    new ReadReceiptDTO(conversationId, profileId, readCount, now)
+            ));
         }
     }
 
     @Transactional(readOnly = true)
     public long getUnreadMessagesCount(Long profileId) {
-        UserProfile profile = getUserProfileById(profileId);
-        return conversationRepository.countUnreadMessagesByProfile(profile);
+        return conversationRepository.sumUnreadCountByProfile(profileId);
     }
 
-    // Metody pomocnicze
-
-    private Conversation createNewConversation(
-            UserProfile firstProfile,
-            UserProfile secondProfile
-    ) {
-        Conversation conversation = Conversation.builder()
-                .firstUser(firstProfile)
-                .secondUser(secondProfile)
-                .lastMessageAt(LocalDateTime.now())
-                .build();
-
-        return conversationRepository.save(conversation);
+    /**
+     * Uzupełnia pola zdenormalizowane konwersacji utworzonych przed ich wprowadzeniem.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfillConversationCounters() {
+        if (conversationRepository.existsMissingDenormalizedFields()) {
+            conversationRepository.backfillDenormalizedFields();
+        }
     }
 
-    private ConversationDTO mapToConversationDTO(
-            Conversation conversation,
-            UserProfile currentProfile
-    ) {
-        UserProfile otherProfile =
-                conversation.getFirstUser().getId().equals(currentProfile.getId())
-                        ? conversation.getSecondUser() : conversation.getFirstUser();
+    /**
+     * Sprowadza konwersacje do par kanonicznych (firstUser.id < secondUser.id): scala duplikaty tej samej pary
+     * (wiadomości trafiają do najstarszej konwersacji) i zakłada indeks unikalny na parę.
+     * Wywoływane przed uruchomieniem serwera WWW (zob. {@code PairIndexInitializer}).
+     */
+    @Transactional
+    public void canonicalizeConversationPairs() {
+        if (conversationRepository.existsPairIndex() && !conversationRepository.existsNonCanonicalPair()) {
+            return;
+        }
 
-        Long unreadCount = messageRepository
-                .countUnreadMessagesInConversation(conversation, currentProfile);
+        conversationRepository.markDuplicateTargets();
+        conversationRepository.moveDuplicateMessages();
+        conversationRepository.deleteDuplicates();
+        conversationRepository.swapNonCanonicalPairs();
+        conversationRepository.refreshLastMessageAtOfMarked();
+        conversationRepository.backfillDenormalizedFields();
+        conversationRepository.createPairIndex();
+    }
 
-        String photoUrl = "https://en.wikipedia.org/wiki/Portal:Cats/Selected_picture#/media/File:Panthera_tigris_sumatran_subspecies.jpg";
+    // Metody pomocnicze
 
-        return createConversationDTO(conversation, otherProfile, unreadCount, photoUrl);
+    /**
+     * Konwersacja pary profili: odczyt po indeksie unikalnym, a gdy jej nie ma - INSERT ... ON CONFLICT,
+     * więc równoległe wiadomości nie utworzą dwóch konwersacji.
+     */
+    private Conversation getOrCreateConversation(Long firstProfileId, Long secondProfileId) {
+        Long firstId = Math.min(firstProfileId, secondProfileId);
+        Long secondId = Math.max(firstProfileId, secondProfileId);
+
+        return conversationRepository.findByPair(firstId, secondId)
+                .orElseGet(() -> {
+                    conversationRepository.insertIfAbsent(firstId, secondId, LocalDateTime.now());
+                    return conversationRepository.findByPair(firstId, secondId)
+                            .orElseThrow(() -> new IllegalStateException("Nie udało się utworzyć konwersacji"));
+                });
     }
 
-    private ConversationDTO createConversationDTO(
-            Conversation conversation,
-            UserProfile otherProfile,
-            Long unreadCount,
-            String photoUrl
-    ) {
+    private ConversationDTO mapToConversationDTO(ConversationInboxView view, Map<Long, String> avatars) {
+        String photoUrl = avatars.get(view.getRecipientId());
+
         ConversationDTO dto = new ConversationDTO();
-        dto.setId(conversation.getId());
-        dto.setRecipientId(otherProfile.getId());
-        dto.setRecipientName(otherProfile.getFirstName() + " " + otherProfile.getLastName());
-        dto.setRecipientPhotoUrl(photoUrl != null ? photoUrl : "default-profile-image.jpg");
-
-        String lastMessageContent = "";
-        if (!conversation.getMessages().isEmpty()) {
-            lastMessageContent = conversation.getMessages().get(0).getContent();
-            if (lastMessageContent.length() > 50) {
-                lastMessageContent = lastMessageContent.substring(0, 47) + "...";
-            }
-        }
+        dto.setId(view.getConversationId());
+        dto.setRecipientId(view.getRecipientId());
+        dto.setRecipientName(view.getRecipientFirstName() + " " + view.getRecipientLastName());
+        dto.setRecipientPhotoUrl(photoUrl != null ? photoUrl : AvatarResolver.DEFAULT_AVATAR_URL);
 
-        dto.setLastMessage(lastMessageContent);
-        dto.setLastMessageAt(conversation.getLastMessageAt());
+        int unreadCount = view.getUnreadCount() != null ? view.getUnreadCount() : 0;
+
+        dto.setLastMessage(view.getLastMessagePreview() != null ? view.getLastMessagePreview() : "");
+        dto.setLastMessageAt(view.getLastMessageAt());
         dto.setHasUnreadMessages(unreadCount > 0);
-        dto.setUnreadCount(unreadCount.intValue());
+        dto.setUnreadCount(unreadCount);
 
         return dto;
     }
 
+    private String toPreview(String content) {
+        if (content.length() > 50) {
+            return content.substring(0, 47) + "...";
+        }
+        return content;
+    }
+
+    private record MessageCursor(LocalDateTime createdAt, Long id) {
+    }
+
+    // kursor jest nieprzezroczysty dla klienta: base64url z "createdAt|id"
+    private String encodeCursor(Message message) {
+        String raw = message.getCreatedAt() + "|" + message.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private MessageCursor decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('|');
+            return new MessageCursor(
+                    LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1))
+            );
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Nieprawidłowy kursor");
+        }
+    }
+
     private MessageDTO mapToMessageDTO(Message message, UserProfile currentProfile) {
         MessageDTO dto = new MessageDTO();
         dto.setId(message.getId());
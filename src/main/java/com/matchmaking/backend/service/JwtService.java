@@ -1,35 +1,122 @@
 package com.matchmaking.backend.service;
 
+import com.matchmaking.backend.model.auth.User;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.LocatorAdapter;
 import io.jsonwebtoken.security.Keys;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
 
 import io.jsonwebtoken.JwtException;
 
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.util.Collections;
 import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
 
+/**
+ * Silnik tokenów JWT.
+ * <p>
+ * Klucze HMAC i parser są budowane raz przy starcie (parser jest thread-safe).
+ * Obsługuje rotację kluczy: token podpisywany jest aktywnym kluczem, a jego identyfikator trafia
+ * do nagłówka {@code kid}. Weryfikacja wybiera klucz z keyringu po {@code kid}, więc tokeny
+ * podpisane poprzednim kluczem pozostają ważne, dopóki klucz jest w konfiguracji.
+ */
 @Service
 public class JwtService {
 
-    // Secret key for signing the JWT. In a real application, this should be stored securely.
-    private final String SECRET_KEY = "securesecuresecuresecuresecuresecuresecuresecure";
+    public static final String ROLE_CLAIM = "role";
+    public static final String ENABLED_CLAIM = "enabled";
+
+    // identyfikator klucza z jwt.secret; używany także dla tokenów bez nagłówka kid
+    static final String DEFAULT_KEY_ID = "default";
+
+    // minimalna długość klucza HS256 (RFC 7518, 3.2)
+    private static final int MIN_SECRET_BYTES = 32;
+
+    private final Map<String, SecretKey> keyring;
+    private final String activeKeyId;
+    private final SecretKey activeKey;
+    private final JwtParser parser;
+    private final long expirationMs;
 
     /**
-     * Generuje token JWT dla podanego użytkownika.
+     * @param secret      klucz domyślny (kid {@value #DEFAULT_KEY_ID})
+     * @param keys        dodatkowe klucze w formacie {@code kid1:sekret1,kid2:sekret2}
+     * @param activeKeyId kid klucza, którym podpisywane są nowe tokeny
+     */
+    public JwtService(
+            @Value("${jwt.secret:securesecuresecuresecuresecuresecuresecuresecure}") String secret,
+            @Value("${jwt.keys:}") String keys,
+            @Value("${jwt.active-key-id:" + DEFAULT_KEY_ID + "}") String activeKeyId,
+            @Value("${jwt.expiration:900000}") long expirationMs
+    ) {
+        this.keyring = Collections.unmodifiableMap(parseKeyring(secret, keys));
+        this.activeKeyId = activeKeyId;
+        this.activeKey = keyring.get(activeKeyId);
+        if (activeKey == null) {
+            throw new IllegalStateException("Brak klucza JWT o identyfikatorze: " + activeKeyId);
+        }
+        this.expirationMs = expirationMs;
+        this.parser = Jwts.parser()
+                .keyLocator(new LocatorAdapter<Key>() {
+                    @Override
+                    protected Key locate(JwsHeader header) {
+                        String kid = header.getKeyId() != null ? header.getKeyId() : DEFAULT_KEY_ID;
+                        SecretKey key = keyring.get(kid);
+                        if (key == null) {
+                            throw new JwtException("Nieznany identyfikator klucza JWT: " + kid);
+                        }
+                        return key;
+                    }
+                })
+                .build();
+    }
+
+    /**
+     * Generuje krótko żyjący access token JWT dla podanego użytkownika.
+     * Rola i status konta trafiają do claims, dzięki czemu filtr nie musi odpytywać bazy przy każdym żądaniu.
+     * Identyfikator tokenu (jti) pozwala unieważnić go przy wylogowaniu.
      *
-     * @param username nazwa użytkownika, dla którego generowany jest token
+     * @param user użytkownik, dla którego generowany jest token
      * @return wygenenerowany token JWT
      */
-    public String generateToken(String username) {
+    public String generateToken(User user) {
+        long now = System.currentTimeMillis();
         return Jwts.builder()
-                .subject(username)
-                .issuedAt(new Date())
-                .expiration(new Date(System.currentTimeMillis() + 86400000))
-                .signWith(Keys.hmacShaKeyFor(SECRET_KEY.getBytes()), Jwts.SIG.HS256)
+                .header().keyId(activeKeyId).and()
+                .id(UUID.randomUUID().toString())
+                .subject(user.getEmail())
+                .claim(ROLE_CLAIM, user.getRole().name())
+                .claim(ENABLED_CLAIM, user.isEnabled())
+                .issuedAt(new Date(now))
+                .expiration(new Date(now + expirationMs))
+                .signWith(activeKey, Jwts.SIG.HS256)
                 .compact();
     }
 
+    /**
+     * Parsuje i weryfikuje token JWT (jednokrotnie) i zwraca jego claims.
+     *
+     * @param token token JWT
+     * @return claims tokenu lub {@code null}, jeśli token jest niepoprawny lub wygasł
+     */
+    public Claims parseToken(String token) {
+        try {
+            return parser.parseSignedClaims(token).getPayload();
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
     /**
      * Ekstrahuje nazwę użytkownika z podanego tokenu JWT.
      *
@@ -37,11 +124,8 @@ public class JwtService {
      * @return nazwa użytkownika zawarta w tokenie
      */
     public String extractUsername(String token) {
-        return Jwts.parser()
-                .setSigningKey(SECRET_KEY.getBytes())
-                .build()
-                .parseSignedClaims(token)
-                .getBody()
+        return parser.parseSignedClaims(token)
+                .getPayload()
                 .getSubject();
     }
 
@@ -52,11 +136,39 @@ public class JwtService {
      * @return <ul><li>`true` jeśli token jest <b>poprawny</b>,</li><li>`false` w przeciwnym wypadku.</li></ul>
      */
     public boolean validateToken(String token) {
-        try {
-            extractUsername(token);
-            return true;
-        } catch (JwtException e) {
-            return false;
+        return parseToken(token) != null;
+    }
+
+    /**
+     * Maksymalny czas życia tokenu w milisekundach.
+     */
+    public long getExpirationMs() {
+        return expirationMs;
+    }
+
+    private static Map<String, SecretKey> parseKeyring(String secret, String keys) {
+        Map<String, SecretKey> result = new LinkedHashMap<>();
+        if (StringUtils.hasText(secret)) {
+            result.put(DEFAULT_KEY_ID, hmacKey(secret));
+        }
+        if (StringUtils.hasText(keys)) {
+            for (String entry : keys.split(",")) {
+                int separator = entry.indexOf(':');
+                if (separator <= 0) {
+                    throw new IllegalStateException("Niepoprawny wpis jwt.keys (oczekiwano kid:sekret)");
+                }
+                result.put(entry.substring(0, separator).trim(), hmacKey(entry.substring(separator + 1).trim()));
+            }
+        }
+        return result;
+    }
+
+    private static SecretKey hmacKey(String secret) {
+        byte[] bytes = secret.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length < MIN_SECRET_BYTES) {
+            throw new IllegalStateException("Klucz JWT musi mieć co najmniej " + MIN_SECRET_BYTES
+                    + " bajty (256 bitów) dla HS256, podano " + bytes.length);
         }
+        return Keys.hmacShaKeyFor(bytes);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,113 @@
+package com.matchmaking.backend.service;
+
+import com.matchmaking.backend.model.auth.RefreshToken;
+import com.matchmaking.backend.model.auth.User;
+import com.matchmaking.backend.repository.RefreshTokenRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Optional;
+
+/**
+ * Rotujące refresh tokeny. W bazie przechowywany jest wyłącznie skrót SHA-256 tokenu.
+ */
+@Service
+@RequiredArgsConstructor
+public class RefreshTokenService {
+
+    private static final int TOKEN_BYTES = 32;
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    @Value("${jwt.refresh-expiration-days:30}")
+    private long refreshExpirationDays;
+
+    /**
+     * Wystawia nowy refresh token dla użytkownika.
+     *
+     * @return token w postaci jawnej (przekazywany wyłącznie klientowi)
+     */
+    @Transactional
+    public String issue(User user) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        secureRandom.nextBytes(bytes);
+        String rawToken = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        refreshTokenRepository.save(RefreshToken.builder()
+                .user(user)
+                .tokenHash(hash(rawToken))
+                .expiresAt(LocalDateTime.now().plusDays(refreshExpirationDays))
+                .build());
+
+        return rawToken;
+    }
+
+    /**
+     * Zużywa refresh token w ramach rotacji - po wywołaniu token nie jest już ważny.
+     * Ponowne użycie unieważnionego tokenu oznacza prawdopodobny wyciek,
+     * więc wszystkie tokeny użytkownika zostają unieważnione.
+     * <p>
+     * Rotacja jest atomowa (warunkowy UPDATE): z równoległych żądań z tym samym tokenem
+     * powodzenie odnosi tylko jedno, pozostałe traktowane są jak ponowne użycie.
+     *
+     * @param rawToken token w postaci jawnej
+     * @return właściciel tokenu lub pusty Optional, jeśli token jest nieważny
+     */
+    @Transactional
+    public Optional<User> consume(String rawToken) {
+        String tokenHash = hash(rawToken);
+        boolean rotated = refreshTokenRepository.revokeIfActive(tokenHash, LocalDateTime.now()) == 1;
+
+        Optional<RefreshToken> tokenOpt = refreshTokenRepository.findByTokenHash(tokenHash);
+        if (tokenOpt.isEmpty()) {
+            return Optional.empty();
+        }
+        if (rotated) {
+            return Optional.of(tokenOpt.get().getUser());
+        }
+
+        // token istnieje, ale nie został zużyty przez to żądanie: ponowne użycie albo wygaśnięcie
+        RefreshToken token = tokenOpt.get();
+        if (token.getRevokedAt() != null) {
+            revokeAll(token.getUser());
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Unieważnia pojedynczy refresh token (wylogowanie).
+     */
+    @Transactional
+    public void revoke(String rawToken) {
+        refreshTokenRepository.findByTokenHash(hash(rawToken))
+                .filter(token -> token.getRevokedAt() == null)
+                .ifPresent(token -> token.setRevokedAt(LocalDateTime.now()));
+    }
+
+    /**
+     * Unieważnia wszystkie aktywne refresh tokeny użytkownika.
+     */
+    @Transactional
+    public void revokeAll(User user) {
+        refreshTokenRepository.revokeAllByUser(user, LocalDateTime.now());
+    }
+
+    private String hash(String rawToken) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(rawToken.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 niedostępne", e);
+        }
+    }
+}
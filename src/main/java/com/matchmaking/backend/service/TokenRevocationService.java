@@ -0,0 +1,57 @@
+package com.matchmaking.backend.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Date;
+
+/**
+ * Magazyn unieważnionych access tokenów (po {@code jti}), sprawdzany przez filtr w O(1).
+ * <p>
+ * Wpis musi żyć tylko do wygaśnięcia tokenu, więc przy krótkim czasie życia access tokenów
+ * magazyn pozostaje mały. Wpisy usuwa wyłącznie wygaśnięcie - limit rozmiaru przywracałby ważność
+ * unieważnionym tokenom; przekroczenie progu jest tylko logowane. Stan jest lokalny dla instancji aplikacji.
+ */
+@Slf4j
+@Service
+public class TokenRevocationService {
+
+    private final Cache<String, Boolean> revokedTokenIds;
+    private final long warnSize;
+
+    public TokenRevocationService(
+            @Value("${app.security.revocation-store.warn-size:100000}") long warnSize,
+            JwtService jwtService
+    ) {
+        this.warnSize = warnSize;
+        this.revokedTokenIds = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(jwtService.getExpirationMs()))
+                .build();
+    }
+
+    /**
+     * Unieważnia access token o podanym identyfikatorze.
+     *
+     * @param tokenId   jti tokenu
+     * @param expiresAt data wygaśnięcia tokenu - tokenów już wygasłych nie trzeba zapamiętywać
+     */
+    public void revoke(String tokenId, Date expiresAt) {
+        if (tokenId == null || (expiresAt != null && expiresAt.before(new Date()))) {
+            return;
+        }
+        revokedTokenIds.put(tokenId, Boolean.TRUE);
+
+        long size = revokedTokenIds.estimatedSize();
+        if (size > warnSize) {
+            log.warn("Magazyn unieważnionych tokenów ma {} wpisów (próg {})", size, warnSize);
+        }
+    }
+
+    public boolean isRevoked(String tokenId) {
+        return tokenId != null && revokedTokenIds.getIfPresent(tokenId) != null;
+    }
+}
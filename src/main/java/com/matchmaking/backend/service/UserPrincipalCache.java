@@ -0,0 +1,95 @@
+package com.matchmaking.backend.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.function.Function;
+
+/**
+ * Ograniczony, wygasający cache principali używany przez {@code JwtAuthenticationResolver}.
+ * <p>
+ * Oprócz samych principali przechowuje moment ostatniej zmiany uprawnień użytkownika
+ * (rola, status konta, hasło). Tokeny wystawione przed tym momentem mają nieaktualne claims
+ * i muszą zostać zweryfikowane z bazą. Znaczniki usuwa wyłącznie wygaśnięcie - limit rozmiaru
+ * przywracałby ważność claims zdegradowanych lub zablokowanych użytkowników; przekroczenie progu
+ * jest tylko logowane.
+ */
+@Slf4j
+@Service
+public class UserPrincipalCache {
+
+    private final Cache<String, UserDetails> principals;
+    private final Cache<String, Long> invalidatedAt;
+    private final long invalidationWarnSize;
+
+    public UserPrincipalCache(
+            @Value("${app.security.principal-cache.max-size:10000}") long maxSize,
+            @Value("${app.security.principal-cache.ttl-seconds:300}") long ttlSeconds,
+            @Value("${app.security.principal-cache.invalidation-warn-size:100000}") long invalidationWarnSize,
+            JwtService jwtService
+    ) {
+        this.principals = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build();
+        // znacznik jest potrzebny tylko tak długo, jak długo może żyć wystawiony wcześniej token
+        this.invalidatedAt = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(jwtService.getExpirationMs()))
+                .build();
+        this.invalidationWarnSize = invalidationWarnSize;
+    }
+
+    /**
+     * Zwraca principal z cache lub ładuje go podanym loaderem (jedno zapytanie do bazy).
+     */
+    public UserDetails get(String email, Function<String, UserDetails> loader) {
+        return principals.get(email, loader);
+    }
+
+    /**
+     * Sprawdza, czy token wystawiony w podanym momencie ma nieaktualne claims.
+     *
+     * @param email    email użytkownika (subject tokenu)
+     * @param issuedAt data wystawienia tokenu
+     * @return true, jeśli uprawnienia użytkownika zmieniły się po wystawieniu tokenu
+     */
+    public boolean isStale(String email, Date issuedAt) {
+        Long changedAt = invalidatedAt.getIfPresent(email);
+        return changedAt != null && (issuedAt == null || issuedAt.getTime() <= changedAt);
+    }
+
+    /**
+     * Unieważnia principal użytkownika. Wewnątrz transakcji unieważnienie następuje dopiero po commicie,
+     * aby równoległe żądanie nie załadowało do cache starego stanu z bazy.
+     */
+    public void invalidate(String email) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(email);
+                }
+            });
+        } else {
+            evict(email);
+        }
+    }
+
+    private void evict(String email) {
+        invalidatedAt.put(email, System.currentTimeMillis());
+        principals.invalidate(email);
+
+        long size = invalidatedAt.estimatedSize();
+        if (size > invalidationWarnSize) {
+            log.warn("Znaczniki zmian uprawnień: {} wpisów (próg {})", size, invalidationWarnSize);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.matchmaking.backend.service.chat;
+
+import com.matchmaking.backend.model.chat.MessageDTO;
+import com.matchmaking.backend.model.chat.ReadReceiptDTO;
+
+/**
+ * Punkt rozszerzeń dostarczania zdarzeń czatu do połączonych klientów.
+ * <p>
+ * Domyślna implementacja ({@link StompChatEventRelay}) korzysta z brokera w pamięci, więc obsługuje
+ * tylko klientów podłączonych do tej samej instancji. Przy wielu instancjach wystarczy dostarczyć
+ * własny bean (np. publikujący do zewnętrznego brokera) oznaczony jako {@code @Primary}.
+ */
+public interface ChatEventRelay {
+
+    void sendMessage(String recipient, MessageDTO message);
+
+    void sendReadReceipt(String recipient, ReadReceiptDTO receipt);
+}
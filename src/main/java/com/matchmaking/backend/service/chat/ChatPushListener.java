@@ -0,0 +1,29 @@
+package com.matchmaking.backend.service.chat;
+
+import com.matchmaking.backend.model.chat.ChatMessageSentEvent;
+import com.matchmaking.backend.model.chat.ConversationReadEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Przekazuje zdarzenia czatu do {@link ChatEventRelay} dopiero po zatwierdzeniu transakcji,
+ * dzięki czemu klient nigdy nie otrzyma wiadomości, która została wycofana.
+ */
+@Component
+@RequiredArgsConstructor
+public class ChatPushListener {
+
+    private final ChatEventRelay chatEventRelay;
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onMessageSent(ChatMessageSentEvent event) {
+        chatEventRelay.sendMessage(event.getRecipientEmail(), event.getMessage());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onConversationRead(ConversationReadEvent event) {
+        chatEventRelay.sendReadReceipt(event.getSenderEmail(), event.getReceipt());
+    }
+}
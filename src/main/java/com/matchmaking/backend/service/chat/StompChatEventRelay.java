@@ -0,0 +1,30 @@
+package com.matchmaking.backend.service.chat;
+
+import com.matchmaking.backend.model.chat.MessageDTO;
+import com.matchmaking.backend.model.chat.ReadReceiptDTO;
+import lombok.RequiredArgsConstructor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Dostarcza zdarzenia czatu do kolejek użytkownika ({@code /user/queue/...}) przez broker STOMP.
+ */
+@Component
+@RequiredArgsConstructor
+public class StompChatEventRelay implements ChatEventRelay {
+
+    static final String MESSAGES_QUEUE = "/queue/messages";
+    static final String READ_RECEIPTS_QUEUE = "/queue/read-receipts";
+
+    private final SimpMessagingTemplate messagingTemplate;
+
+    @Override
+    public void sendMessage(String recipient, MessageDTO message) {
+        messagingTemplate.convertAndSendToUser(recipient, MESSAGES_QUEUE, message);
+    }
+
+    @Override
+    public void sendReadReceipt(String recipient, ReadReceiptDTO receipt) {
+        messagingTemplate.convertAndSendToUser(recipient, READ_RECEIPTS_QUEUE, receipt);
+    }
+}
@@ -0,0 +1,90 @@
+package com.matchmaking.backend.service.image;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.matchmaking.backend.repository.UserProfileImageRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Ustala URL-e avatarów dla list (skrzynka odbiorcza, powiadomienia, rekomendacje).
+ * <p>
+ * Brakujące w cache profile pobierane są jednym zapytaniem dla całej strony; wynik trafia do
+ * ograniczonego cache, unieważnianego przez {@link ImageService} przy zmianie lub usunięciu avatara.
+ */
+@Service
+public class AvatarResolver {
+
+    public static final String DEFAULT_AVATAR_URL = "default-profile-image.jpg";
+
+    // znacznik "profil bez avatara" - Caffeine nie przechowuje wartości null
+    private static final String NO_AVATAR = "";
+
+    private final UserProfileImageRepository imageRepository;
+    private final Cache<Long, String> avatars;
+
+    public AvatarResolver(
+            UserProfileImageRepository imageRepository,
+            @Value("${app.images.avatar-cache.max-size:50000}") long maxSize,
+            @Value("${app.images.avatar-cache.ttl-seconds:3600}") long ttlSeconds
+    ) {
+        this.imageRepository = imageRepository;
+        this.avatars = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build();
+    }
+
+    /**
+     * @return mapa: ID profilu -> URL avatara (lub {@link #DEFAULT_AVATAR_URL}, jeśli profil nie ma avatara)
+     */
+    public Map<Long, String> resolve(Collection<Long> profileIds) {
+        Map<Long, String> result = new HashMap<>();
+        if (profileIds.isEmpty()) {
+            return result;
+        }
+        avatars.getAll(profileIds, this::load).forEach((profileId, url) ->
+                result.put(profileId, url.isEmpty() ? DEFAULT_AVATAR_URL : url));
+        return result;
+    }
+
+    public String resolve(Long profileId) {
+        return resolve(Set.of(profileId)).getOrDefault(profileId, DEFAULT_AVATAR_URL);
+    }
+
+    /**
+     * Unieważnia avatar profilu; wewnątrz transakcji dopiero po commicie.
+     */
+    public void invalidate(Long profileId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    avatars.invalidate(profileId);
+                }
+            });
+        } else {
+            avatars.invalidate(profileId);
+        }
+    }
+
+    private Map<Long, String> load(Set<? extends Long> profileIds) {
+        Map<Long, String> loaded = new HashMap<>();
+        for (Long profileId : profileIds) {
+            loaded.put(profileId, NO_AVATAR);
+        }
+        for (Object[] row : imageRepository.findAvatarUrlsByProfileIds(Set.copyOf(profileIds))) {
+            String avatarUrl = row[1] != null ? (String) row[1] : (String) row[2];
+            loaded.put((Long) row[0], avatarUrl != null ? avatarUrl : NO_AVATAR);
+        }
+        return loaded;
+    }
+}
@@ -3,32 +3,77 @@ package com.matchmaking.backend.service.image;
 import com.cloudinary.Cloudinary;
 import com.cloudinary.Transformation;
 import com.cloudinary.utils.ObjectUtils;
+import com.matchmaking.backend.model.image.ImageMetadataDTO;
 import com.matchmaking.backend.model.image.ImageVersionsDTO;
-import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
 @Service
-@RequiredArgsConstructor
-public class CloudinaryService {
+@ConditionalOnProperty(name = "app.images.storage", havingValue = "cloudinary", matchIfMissing = true)
+public class CloudinaryService implements ImageStorage {
 
     private final Cloudinary cloudinary;
 
+    private final ImageUploadBuffer uploadBuffer;
+    private final long chunkedUploadThresholdBytes;
+    private final int chunkSizeBytes;
+
+    // true - upload nie czeka na wygenerowanie wersji pochodnych (eager_async)
+    private final boolean eagerAsync;
+
+    // publiczny adres endpointu /api/images/cloudinary/notify
+    private final String eagerNotificationUrl;
+
+    private final long notificationMaxAgeSeconds;
+
+    public CloudinaryService(
+            Cloudinary cloudinary,
+            ImageUploadBuffer uploadBuffer,
+            @Value("${app.images.chunked-upload-threshold-bytes:20971520}") long chunkedUploadThresholdBytes,
+            @Value("${app.images.chunk-size-bytes:6291456}") int chunkSizeBytes,
+            @Value("${app.images.eager-async:false}") boolean eagerAsync,
+            @Value("${app.images.eager-notification-url:}") String eagerNotificationUrl,
+            @Value("${app.images.notification-max-age-seconds:7200}") long notificationMaxAgeSeconds
+    ) {
+        // bez adresu powiadomień zdjęcia utknęłyby w statusie PENDING - błąd konfiguracji zgłaszamy przy starcie
+        if (eagerAsync && (eagerNotificationUrl == null || eagerNotificationUrl.isBlank())) {
+            throw new IllegalStateException(
+                    "app.images.eager-async=true wymaga ustawienia app.images.eager-notification-url");
+        }
+        this.cloudinary = cloudinary;
+        this.uploadBuffer = uploadBuffer;
+        this.chunkedUploadThresholdBytes = chunkedUploadThresholdBytes;
+        this.chunkSizeBytes = chunkSizeBytes;
+        this.eagerAsync = eagerAsync;
+        this.eagerNotificationUrl = eagerNotificationUrl;
+        this.notificationMaxAgeSeconds = notificationMaxAgeSeconds;
+    }
+
     private static final String FOLDER = "user_profiles";
-    public  static final int ORIGINAL_MAX_SIZE = 2048;
-    public  static final int GALLERY_WIDTH = 1024;
-    public  static final int THUMBNAIL_SIZE = 200;
-    public  static final int AVATAR_SIZE = 512;
 
     /**
      * Wgrywa oryginał (limit) + eager‐transformacje: gallery (limit) + thumbnail (fill).
+     * <p>
+     * Plik nie jest buforowany w pamięci: multipart trafia do pliku tymczasowego, z którego klient
+     * Cloudinary wysyła go strumieniowo (duże pliki - w kawałkach przez {@code uploadLarge}).
      */
+    @Override
     public ImageVersionsDTO uploadImage(MultipartFile file) throws IOException {
         String uid      = UUID.randomUUID().toString();
         String publicId = FOLDER + "/" + uid;
@@ -52,15 +97,29 @@ public class CloudinaryService {
                 .quality("auto:good")
                 .fetchFormat("auto");
 
-        Map<String,Object> result = cloudinary.uploader().upload(
-                file.getBytes(),
-                ObjectUtils.asMap(
-                        "public_id", publicId,
-                        "transformation", originalTrans,
-                        "eager", Arrays.asList(galleryTrans, thumbTrans),
-                        "eager_async", false  // synchronicznie zwracamy URL-e
-                )
+        Map<String,Object> options = ObjectUtils.asMap(
+                "public_id", publicId,
+                "transformation", originalTrans,
+                "eager", Arrays.asList(galleryTrans, thumbTrans),
+                "eager_async", eagerAsync
         );
+        if (eagerAsync) {
+            options.put("eager_notification_url", eagerNotificationUrl);
+        }
+
+        Map<String,Object> result = uploadStreaming(file, options);
+
+        if (eagerAsync) {
+            // wersje pochodne jeszcze nie istnieją - zwracamy ich przewidywane URL-e
+            return new ImageVersionsDTO(
+                    publicId,
+                    (String) result.get("url"),
+                    derivedUrl(publicId, galleryTrans),
+                    derivedUrl(publicId, thumbTrans),
+                    toMetadata(result),
+                    true
+            );
+        }
 
         @SuppressWarnings("unchecked")
         List<Map<String,Object>> eager = (List<Map<String,Object>>) result.get("eager");
@@ -72,13 +131,60 @@ public class CloudinaryService {
                 publicId,
                 (String) result.get("url"),            // oryginał
                 (String) eager.get(0).get("url"),      // gallery
-                (String) eager.get(1).get("url")       // thumbnail
+                (String) eager.get(1).get("url"),      // thumbnail
+                toMetadata(result),
+                false
         );
     }
 
+    /**
+     * Weryfikuje podpis powiadomienia Cloudinary: SHA-1(body + timestamp + api_secret)
+     * oraz wiek powiadomienia (ochrona przed powtórzeniem).
+     *
+     * @param body      surowa treść żądania
+     * @param timestamp nagłówek X-Cld-Timestamp (sekundy)
+     * @param signature nagłówek X-Cld-Signature
+     */
+    public boolean verifyNotificationSignature(String body, long timestamp, String signature) {
+        long ageSeconds = Math.abs(System.currentTimeMillis() / 1000 - timestamp);
+        if (signature == null || ageSeconds > notificationMaxAgeSeconds) {
+            return false;
+        }
+        try {
+            MessageDigest sha1 = MessageDigest.getInstance("SHA-1");
+            byte[] expected = sha1.digest((body + timestamp + cloudinary.config.apiSecret)
+                    .getBytes(StandardCharsets.UTF_8));
+            return MessageDigest.isEqual(
+                    HexFormat.of().formatHex(expected).getBytes(StandardCharsets.UTF_8),
+                    signature.toLowerCase().getBytes(StandardCharsets.UTF_8)
+            );
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private String derivedUrl(String publicId, Transformation transformation) {
+        return cloudinary.url()
+                .transformation(transformation)
+                .generate(publicId);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String,Object> uploadStreaming(MultipartFile file, Map<String,Object> options) throws IOException {
+        return uploadBuffer.withTempFile(file, tempFile -> {
+            File source = tempFile.toFile();
+            if (source.length() > chunkedUploadThresholdBytes) {
+                options.put("chunk_size", chunkSizeBytes);
+                return cloudinary.uploader().uploadLarge(source, options);
+            }
+            return cloudinary.uploader().upload(source, options);
+        });
+    }
+
     /**
      * Kadruje wg dokładnych współrzędnych, potem scala proporcjonalnie do szerokości galerii.
      */
+    @Override
     public String cropToGallery(String publicId, int x, int y, int w, int h) {
         Transformation t = new Transformation()
                 .x(x).y(y).width(w).height(h).crop("crop")
@@ -96,6 +202,7 @@ public class CloudinaryService {
     /**
      * Kadruje wg współrzędnych, potem scala proporcjonalnie, by nie przekroczyć THUMBNAIL_SIZE w każdym wymiarze.
      */
+    @Override
     public String cropToThumbnail(String publicId, int x, int y, int w, int h) {
         Transformation t = new Transformation()
                 .x(x).y(y).width(w).height(h).crop("crop")
@@ -113,6 +220,7 @@ public class CloudinaryService {
     /**
      * Kadruje wg współrzędnych, a następnie przeskalowuje do dokładnego kwadratu AVATAR_SIZE×AVATAR_SIZE.
      */
+    @Override
     public String cropToAvatar(String publicId, int x, int y, int w, int h) {
         Transformation t = new Transformation()
                 .x(x).y(y).width(w).height(h).crop("crop")
@@ -127,6 +235,7 @@ public class CloudinaryService {
                 .generate(publicId);
     }
 
+    @Override
     public void deleteImage(String publicId) throws IOException {
         cloudinary.uploader().destroy(
                 publicId,
@@ -134,14 +243,55 @@ public class CloudinaryService {
         );
     }
 
-    /** Pobiera aktualne wymiary z zasobu Cloudinary. */
-    public Map<String,Integer> getImageDimensions(String publicId) throws Exception {
+    /**
+     * Usuwa zasoby zbiorczo przez Admin API ({@code delete_resources}, maks. 100 identyfikatorów na wywołanie).
+     */
+    @Override
+    public Set<String> deleteImages(Collection<String> publicIds) {
+        try {
+            @SuppressWarnings("unchecked")
+            Map<String,Object> response = cloudinary.api().deleteResources(
+                    publicIds,
+                    ObjectUtils.asMap("invalidate", true)
+            );
+            @SuppressWarnings("unchecked")
+            Map<String,String> statuses = (Map<String,String>) response.get("deleted");
+
+            Set<String> deleted = new HashSet<>();
+            if (statuses != null) {
+                statuses.forEach((publicId, status) -> {
+                    if ("deleted".equals(status) || "not_found".equals(status)) {
+                        deleted.add(publicId);
+                    }
+                });
+            }
+            return deleted;
+        } catch (Exception e) {
+            throw new IllegalStateException("Cloudinary: błąd zbiorczego usuwania - " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Pobiera metadane zasobu przez Admin API (limitowane!).
+     * Używane wyłącznie do uzupełnienia zdjęć wgranych przed zapisywaniem metadanych w bazie.
+     */
+    @Override
+    public ImageMetadataDTO getImageMetadata(String publicId) throws Exception {
         @SuppressWarnings("unchecked")
         Map<String,Object> info = cloudinary.api()
                 .resource(publicId, ObjectUtils.emptyMap());
-        return Map.of(
-                "width", (Integer) info.get("width"),
-                "height", (Integer) info.get("height")
+        return toMetadata(info);
+    }
+
+    private ImageMetadataDTO toMetadata(Map<String,Object> resource) {
+        Number width  = (Number) resource.get("width");
+        Number height = (Number) resource.get("height");
+        Number bytes  = (Number) resource.get("bytes");
+        return new ImageMetadataDTO(
+                width  != null ? width.intValue()   : null,
+                height != null ? height.intValue()  : null,
+                bytes  != null ? bytes.longValue()  : null,
+                (String) resource.get("format")
         );
     }
 }
@@ -0,0 +1,189 @@
+package com.matchmaking.backend.service.image;
+
+import com.matchmaking.backend.model.image.ImageCleanupTask;
+import com.matchmaking.backend.repository.ImageCleanupTaskRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Usuwa zdjęcia z magazynu poza transakcją bazodanową.
+ * <p>
+ * Zadania ({@link ImageCleanupTask}) zapisywane są w transakcji wywołującego, a wykonywane po jej
+ * commicie - zbiorczo (po {@value #CHUNK_SIZE} zdjęć) i równolegle na ograniczonej puli wątków.
+ * Nieudane usunięcia są ponawiane z wykładniczym odstępem przez cykliczny przegląd tabeli.
+ */
+@Slf4j
+@Component
+public class ImageCleanupWorker {
+
+    // limit identyfikatorów w jednym wywołaniu delete_resources
+    static final int CHUNK_SIZE = 100;
+
+    private final ImageCleanupTaskRepository taskRepository;
+    private final ImageStorage imageStorage;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService executor;
+
+    // czas, na jaki zadanie jest rezerwowane przed wykonaniem (po nim przegląd może je podjąć ponownie)
+    @Value("${app.images.cleanup.lease-seconds:300}")
+    private long leaseSeconds;
+
+    @Value("${app.images.cleanup.backoff-base-seconds:30}")
+    private long backoffBaseSeconds;
+
+    @Value("${app.images.cleanup.backoff-max-seconds:3600}")
+    private long backoffMaxSeconds;
+
+    public ImageCleanupWorker(
+            ImageCleanupTaskRepository taskRepository,
+            ImageStorage imageStorage,
+            TransactionTemplate transactionTemplate,
+            @Value("${app.images.cleanup.concurrency:4}") int concurrency
+    ) {
+        this.taskRepository = taskRepository;
+        this.imageStorage = imageStorage;
+        this.transactionTemplate = transactionTemplate;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                concurrency, concurrency,
+                60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(100),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "image-cleanup-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+        );
+    }
+
+    /**
+     * Zapisuje zadania usunięcia w bieżącej transakcji i zleca ich wykonanie po commicie.
+     * Po wycofaniu transakcji zadania nie powstają, a pliki pozostają nienaruszone.
+     */
+    public void schedule(Collection<String> publicIds) {
+        if (publicIds.isEmpty()) {
+            return;
+        }
+
+        LocalDateTime leaseUntil = LocalDateTime.now().plusSeconds(leaseSeconds);
+        List<ImageCleanupTask> tasks = taskRepository.saveAll(publicIds.stream()
+                .map(publicId -> ImageCleanupTask.builder()
+                        .publicId(publicId)
+                        .attempts(0)
+                        .nextAttemptAt(leaseUntil)
+                        .build())
+                .toList());
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    dispatch(tasks);
+                }
+            });
+        } else {
+            dispatch(tasks);
+        }
+    }
+
+    /**
+     * Podejmuje zadania, których termin minął: nieudane wcześniej lub przerwane (np. restart aplikacji).
+     */
+    @Scheduled(fixedDelayString = "${app.images.cleanup.sweep-interval-ms:60000}")
+    public void sweep() {
+        LocalDateTime now = LocalDateTime.now();
+        List<ImageCleanupTask> due = transactionTemplate.execute(status -> {
+            List<ImageCleanupTask> tasks = taskRepository.findTop500ByNextAttemptAtLessThanEqualOrderByNextAttemptAtAsc(now);
+            tasks.forEach(task -> task.setNextAttemptAt(now.plusSeconds(leaseSeconds)));
+            return tasks;
+        });
+        if (due != null && !due.isEmpty()) {
+            dispatch(due);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private void dispatch(List<ImageCleanupTask> tasks) {
+        for (int from = 0; from < tasks.size(); from += CHUNK_SIZE) {
+            List<ImageCleanupTask> chunk = new ArrayList<>(tasks.subList(from, Math.min(from + CHUNK_SIZE, tasks.size())));
+            try {
+                executor.execute(() -> process(chunk));
+            } catch (RejectedExecutionException e) {
+                // pula jest przeciążona - zadania podejmie przegląd po wygaśnięciu rezerwacji
+                log.warn("Kolejka usuwania zdjęć jest pełna, {} zadań zostanie ponowionych później", chunk.size());
+            }
+        }
+    }
+
+    private void process(List<ImageCleanupTask> chunk) {
+        List<String> publicIds = chunk.stream().map(ImageCleanupTask::getPublicId).toList();
+
+        Set<String> deleted;
+        String error = null;
+        try {
+            deleted = imageStorage.deleteImages(publicIds);
+        } catch (Exception e) {
+            deleted = Set.of();
+            error = e.getMessage();
+        }
+
+        List<Long> done = new ArrayList<>();
+        List<ImageCleanupTask> failed = new ArrayList<>();
+        for (ImageCleanupTask task : chunk) {
+            if (deleted.contains(task.getPublicId())) {
+                done.add(task.getId());
+            } else {
+                int attempts = task.getAttempts() + 1;
+                task.setAttempts(attempts);
+                task.setNextAttemptAt(LocalDateTime.now().plus(backoff(attempts)));
+                task.setLastError(truncate(error != null ? error : "Zdjęcie nie zostało usunięte"));
+                failed.add(task);
+            }
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!done.isEmpty()) {
+                taskRepository.deleteAllByIdInBatch(done);
+            }
+            if (!failed.isEmpty()) {
+                taskRepository.saveAll(failed);
+            }
+        });
+
+        if (!failed.isEmpty()) {
+            log.warn("Nie usunięto {} z {} zdjęć, ponowienie z opóźnieniem", failed.size(), chunk.size());
+        }
+    }
+
+    private Duration backoff(int attempts) {
+        long seconds = backoffBaseSeconds << Math.min(attempts - 1, 20);
+        return Duration.ofSeconds(Math.min(seconds, backoffMaxSeconds));
+    }
+
+    private String truncate(String message) {
+        return message.length() > 500 ? message.substring(0, 500) : message;
+    }
+}
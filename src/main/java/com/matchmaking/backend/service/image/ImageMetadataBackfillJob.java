@@ -0,0 +1,89 @@
+package com.matchmaking.backend.service.image;
+
+import com.matchmaking.backend.model.AppConfig;
+import com.matchmaking.backend.model.image.ImageMetadataDTO;
+import com.matchmaking.backend.model.image.UserProfileImage;
+import com.matchmaking.backend.repository.AppConfigRepository;
+import com.matchmaking.backend.repository.UserProfileImageRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Jednorazowo uzupełnia metadane (wymiary, rozmiar, format) zdjęć wgranych przed ich zapisywaniem w bazie.
+ * Działa w tle po starcie aplikacji; przy Cloudinary każde zdjęcie to jedno zapytanie do Admin API,
+ * więc zapytania są rozłożone w czasie ({@code app.images.metadata-backfill.delay-ms}).
+ * <p>
+ * Po przejściu wszystkich zdjęć zapisuje znacznik w {@code app_config} - zdjęcia, których metadanych
+ * nie udało się pobrać, nie są odpytywane ponownie przy każdym starcie. Ponowne uruchomienie -
+ * usunięcie wiersza {@value #BACKFILL_DONE_KEY}.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ImageMetadataBackfillJob {
+
+    private static final String BACKFILL_DONE_KEY = "migration.images.metadata-backfilled";
+
+    private final UserProfileImageRepository imageRepository;
+    private final ImageStorage imageStorage;
+    private final AppConfigRepository appConfigRepository;
+
+    @Value("${app.images.metadata-backfill.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.images.metadata-backfill.delay-ms:200}")
+    private long delayMs;
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() throws InterruptedException {
+        if (!enabled || appConfigRepository.existsById(BACKFILL_DONE_KEY)) {
+            return;
+        }
+
+        long lastId = 0L;
+        int updated = 0;
+        int failed = 0;
+        List<UserProfileImage> batch;
+        do {
+            batch = imageRepository.findTop100ByWidthIsNullAndPublicIdIsNotNullAndIdGreaterThanOrderByIdAsc(lastId);
+            for (UserProfileImage image : batch) {
+                lastId = image.getId();
+                try {
+                    ImageMetadataDTO metadata = imageStorage.getImageMetadata(image.getPublicId());
+                    imageRepository.updateMetadata(
+                            image.getId(),
+                            metadata.getWidth(),
+                            metadata.getHeight(),
+                            metadata.getBytes(),
+                            metadata.getFormat()
+                    );
+                    updated++;
+                } catch (Exception e) {
+                    // zasób mógł zostać usunięty z magazynu - pomijamy, zdjęcie zostanie bez wymiarów
+                    failed++;
+                    log.warn("Nie udało się pobrać metadanych zdjęcia {}: {}", image.getId(), e.getMessage());
+                }
+                Thread.sleep(delayMs);
+            }
+        } while (!batch.isEmpty());
+
+        if (updated > 0 || failed > 0) {
+            log.info("Uzupełniono metadane {} zdjęć, nieudane: {}", updated, failed);
+        }
+
+        AppConfig marker = new AppConfig();
+        marker.setParamKey(BACKFILL_DONE_KEY);
+        marker.setParamValue("true");
+        marker.setDescription("Jednorazowe uzupełnienie metadanych zdjęć zostało wykonane");
+        marker.setDataType("BOOLEAN");
+        appConfigRepository.save(marker);
+    }
+}
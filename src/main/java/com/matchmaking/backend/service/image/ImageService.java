@@ -4,6 +4,7 @@ import com.matchmaking.backend.exception.ResourceNotFoundException;
 import com.matchmaking.backend.model.auth.User;
 import com.matchmaking.backend.model.profile.UserProfile;
 import com.matchmaking.backend.model.image.ImageCropDTO;
+import com.matchmaking.backend.model.image.ImageStatus;
 import com.matchmaking.backend.model.image.ImageVersionsDTO;
 import com.matchmaking.backend.model.image.UserProfileImage;
 import com.matchmaking.backend.model.image.UserProfileImageDTO;
@@ -28,8 +29,9 @@ public class ImageService {
 
     private final UserService userService;
     private final UserProfileRepository userProfileRepository;
-    private final CloudinaryService cloudinaryService;
+    private final ImageStorage imageStorage;
     private final UserProfileImageRepository imageRepository;
+    private final AvatarResolver avatarResolver;
 
     @Value("${app.profile.max-images:10}")
     private int maxImagesPerUser;
@@ -64,7 +66,7 @@ public class ImageService {
             throw new IllegalStateException("Osiągnięto maksymalną liczbę zdjęć (" + maxImagesPerUser + ")");
         }
 
-        ImageVersionsDTO versions = cloudinaryService.uploadImage(file);
+        ImageVersionsDTO versions = imageStorage.uploadImage(file);
 
         // kolejnosc nowego zdjęcia
         Integer maxOrder = imageRepository.findMaxDisplayOrder(profile);
@@ -77,6 +79,11 @@ public class ImageService {
                 .originalUrl(versions.getOriginalUrl())
                 .galleryUrl(versions.getGalleryUrl())
                 .thumbnailUrl(versions.getThumbnailUrl())
+                .width(versions.getMetadata().getWidth())
+                .height(versions.getMetadata().getHeight())
+                .bytes(versions.getMetadata().getBytes())
+                .format(versions.getMetadata().getFormat())
+                .status(versions.isPending() ? ImageStatus.PENDING : ImageStatus.READY)
                 .displayOrder(displayOrder)
                 .isAvatar(false)
                 .build();
@@ -89,12 +96,12 @@ public class ImageService {
         User user = userService.getCurrentUser();
         UserProfileImage image = getImageAndCheckPermission(imageId, user);
 
-        String galleryUrl = cloudinaryService.cropToGallery(
+        String galleryUrl = imageStorage.cropToGallery(
                 image.getPublicId(),
                 cropDTO.getX(), cropDTO.getY(),
                 cropDTO.getWidth(), cropDTO.getHeight()
         );
-        String thumbnailUrl = cloudinaryService.cropToThumbnail(
+        String thumbnailUrl = imageStorage.cropToThumbnail(
                 image.getPublicId(),
                 cropDTO.getX(), cropDTO.getY(),
                 cropDTO.getWidth(), cropDTO.getHeight()
@@ -102,7 +109,13 @@ public class ImageService {
 
         image.setGalleryUrl(galleryUrl);
         image.setThumbnailUrl(thumbnailUrl);
+        image.setCropWidth(cropDTO.getWidth());
+        image.setCropHeight(cropDTO.getHeight());
         imageRepository.save(image);
+        if (image.isAvatar()) {
+            // miniatura jest zapasowym URL-em avatara
+            avatarResolver.invalidate(user.getProfile().getId());
+        }
 
         return mapToDTO(image);
     }
@@ -116,7 +129,7 @@ public class ImageService {
         User user = userService.getCurrentUser();
         UserProfileImage image = getImageAndCheckPermission(imageId, user);
 
-        String avatarUrl = cloudinaryService.cropToAvatar(
+        String avatarUrl = imageStorage.cropToAvatar(
                 image.getPublicId(),
                 cropDTO.getX(), cropDTO.getY(),
                 cropDTO.getWidth(), cropDTO.getHeight()
@@ -131,6 +144,7 @@ public class ImageService {
 
         image.setAvatar(true);
         imageRepository.save(image);
+        avatarResolver.invalidate(user.getProfile().getId());
 
         return mapToDTO(image);
     }
@@ -140,8 +154,11 @@ public class ImageService {
         User user = userService.getCurrentUser();
         UserProfileImage image = getImageAndCheckPermission(imageId, user);
 
-        cloudinaryService.deleteImage(image.getPublicId());
+        imageStorage.deleteImage(image.getPublicId());
         imageRepository.delete(image);
+        if (image.isAvatar()) {
+            avatarResolver.invalidate(user.getProfile().getId());
+        }
         reorderImages(user.getProfile());
     }
 
@@ -164,6 +181,40 @@ public class ImageService {
         imageRepository.saveAll(imageMap.values());
     }
 
+    /**
+     * Kończy asynchroniczne generowanie wersji pochodnych (webhook Cloudinary).
+     * URL-e są nadpisywane tylko wtedy, gdy użytkownik nie zdążył w międzyczasie wykadrować zdjęcia.
+     *
+     * @return false, jeśli zdjęcia nie ma (jeszcze) w bazie - np. transakcja uploadu nie została zatwierdzona
+     */
+    @Transactional
+    public boolean completeDerivedVersions(String publicId, String galleryUrl, String thumbnailUrl) {
+        return imageRepository.findByPublicId(publicId).map(image -> {
+            if (image.getCropWidth() == null) {
+                image.setGalleryUrl(galleryUrl);
+                image.setThumbnailUrl(thumbnailUrl);
+            }
+            image.setStatus(ImageStatus.READY);
+            imageRepository.save(image);
+            if (image.isAvatar()) {
+                avatarResolver.invalidate(image.getUserProfile().getId());
+            }
+            return true;
+        }).orElse(false);
+    }
+
+    /**
+     * @return false, jeśli zdjęcia nie ma (jeszcze) w bazie
+     */
+    @Transactional
+    public boolean failDerivedVersions(String publicId) {
+        return imageRepository.findByPublicId(publicId).map(image -> {
+            image.setStatus(ImageStatus.FAILED);
+            imageRepository.save(image);
+            return true;
+        }).orElse(false);
+    }
+
     @Transactional(readOnly = true)
     public UserProfileImageDTO getImageById(Long imageId) {
         User user = userService.getCurrentUser();
@@ -206,33 +257,30 @@ public class ImageService {
                 .avatarUrl(image.getAvatarUrl())
                 .isAvatar(image.isAvatar())
                 .displayOrder(image.getDisplayOrder())
+                .status(image.getStatus())
                 .build();
 
-        // dodatkowe informacje o wymiarach
-        if (image.getPublicId() != null) {
-            try {
-                Map<String,Integer> dim = cloudinaryService.getImageDimensions(image.getPublicId());
-                int origW = dim.get("width");
-                int origH = dim.get("height");
-                dto.setOriginalWidth(origW);
-                dto.setOriginalHeight(origH);
-
-                dto.setGalleryWidth(CloudinaryService.GALLERY_WIDTH);
-                dto.setGalleryHeight(
-                        (int)((long)origH * CloudinaryService.GALLERY_WIDTH / origW)
-                );
-
-                // miniaturka: kwadrat (jeśli ustawiona)
-                dto.setThumbnailWidth(CloudinaryService.THUMBNAIL_SIZE);
-                dto.setThumbnailHeight(CloudinaryService.THUMBNAIL_SIZE);
-
-                // avatar: kwadrat (jeśli ustawiona)
-                if (image.isAvatar()) {
-                    dto.setAvatarWidth(CloudinaryService.AVATAR_SIZE);
-                    dto.setAvatarHeight(CloudinaryService.AVATAR_SIZE);
-                }
-            } catch (Exception e) {
-
+        // wymiary z metadanych zapisanych w bazie (bez zapytań do Cloudinary)
+        if (image.getWidth() != null && image.getHeight() != null && image.getWidth() > 0) {
+            dto.setOriginalWidth(image.getWidth());
+            dto.setOriginalHeight(image.getHeight());
+
+            // galeria: proporcje kadru (jeśli był) lub oryginału
+            int baseW = image.getCropWidth() != null ? image.getCropWidth() : image.getWidth();
+            int baseH = image.getCropHeight() != null ? image.getCropHeight() : image.getHeight();
+            dto.setGalleryWidth(ImageStorage.GALLERY_WIDTH);
+            dto.setGalleryHeight(
+                    (int)((long)baseH * ImageStorage.GALLERY_WIDTH / baseW)
+            );
+
+            // miniaturka: kwadrat (jeśli ustawiona)
+            dto.setThumbnailWidth(ImageStorage.THUMBNAIL_SIZE);
+            dto.setThumbnailHeight(ImageStorage.THUMBNAIL_SIZE);
+
+            // avatar: kwadrat (jeśli ustawiona)
+            if (image.isAvatar()) {
+                dto.setAvatarWidth(ImageStorage.AVATAR_SIZE);
+                dto.setAvatarHeight(ImageStorage.AVATAR_SIZE);
             }
         }
 
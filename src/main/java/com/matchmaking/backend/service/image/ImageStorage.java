@@ -0,0 +1,78 @@
+package com.matchmaking.backend.service.image;
+
+import com.matchmaking.backend.model.image.ImageMetadataDTO;
+import com.matchmaking.backend.model.image.ImageVersionsDTO;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Magazyn zdjęć profilowych (SPI).
+ * <p>
+ * Implementację wybiera właściwość {@code app.images.storage}:
+ * <ul>
+ *     <li>{@code cloudinary} (domyślnie) - {@link CloudinaryService},</li>
+ *     <li>{@code local} - {@link LocalImageStorage}, dysk lokalny i skalowanie w procesie (bez dostępu do sieci).</li>
+ * </ul>
+ */
+public interface ImageStorage {
+
+    int ORIGINAL_MAX_SIZE = 2048;
+    int GALLERY_WIDTH = 1024;
+    int THUMBNAIL_SIZE = 200;
+    int AVATAR_SIZE = 512;
+
+    /**
+     * Zapisuje oryginał (ograniczony do {@link #ORIGINAL_MAX_SIZE}) oraz wersje galerii i miniatury.
+     */
+    ImageVersionsDTO uploadImage(MultipartFile file) throws IOException;
+
+    /**
+     * Kadruje wg współrzędnych, potem skaluje proporcjonalnie do szerokości galerii.
+     *
+     * @return URL wykadrowanej wersji galerii
+     */
+    String cropToGallery(String publicId, int x, int y, int w, int h) throws IOException;
+
+    /**
+     * Kadruje wg współrzędnych, potem skaluje tak, by nie przekroczyć {@link #THUMBNAIL_SIZE}.
+     *
+     * @return URL wykadrowanej miniatury
+     */
+    String cropToThumbnail(String publicId, int x, int y, int w, int h) throws IOException;
+
+    /**
+     * Kadruje wg współrzędnych, a następnie skaluje do kwadratu {@link #AVATAR_SIZE}×{@link #AVATAR_SIZE}.
+     *
+     * @return URL avatara
+     */
+    String cropToAvatar(String publicId, int x, int y, int w, int h) throws IOException;
+
+    void deleteImage(String publicId) throws IOException;
+
+    /**
+     * Usuwa wiele zdjęć naraz (implementacje mogą korzystać z operacji zbiorczych).
+     *
+     * @return identyfikatory zdjęć, których już nie ma w magazynie (usunięte lub nieistniejące)
+     */
+    default Set<String> deleteImages(Collection<String> publicIds) {
+        Set<String> deleted = new HashSet<>();
+        for (String publicId : publicIds) {
+            try {
+                deleteImage(publicId);
+                deleted.add(publicId);
+            } catch (Exception e) {
+                // pozostaje do ponowienia
+            }
+        }
+        return deleted;
+    }
+
+    /**
+     * Odczytuje metadane zapisanego oryginału (używane przy uzupełnianiu starszych zdjęć).
+     */
+    ImageMetadataDTO getImageMetadata(String publicId) throws Exception;
+}
@@ -0,0 +1,73 @@
+package com.matchmaking.backend.service.image;
+
+import com.matchmaking.backend.exception.UploadCapacityExceededException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Wspólna dla magazynów zdjęć ({@link ImageStorage}) obsługa przesyłanego pliku: ogranicza liczbę
+ * równoległych uploadów (pamięć, wątki HTTP, połączenia do magazynu) i buforuje multipart w pliku
+ * tymczasowym, z którego magazyn czyta strumieniowo - bez ładowania całości na stertę.
+ */
+@Component
+public class ImageUploadBuffer {
+
+    private final Semaphore uploadPermits;
+    private final long uploadAcquireTimeoutMs;
+
+    public ImageUploadBuffer(
+            @Value("${app.images.upload-concurrency:4}") int uploadConcurrency,
+            @Value("${app.images.upload-acquire-timeout-ms:10000}") long uploadAcquireTimeoutMs
+    ) {
+        this.uploadPermits = new Semaphore(uploadConcurrency, true);
+        this.uploadAcquireTimeoutMs = uploadAcquireTimeoutMs;
+    }
+
+    /**
+     * Zapisuje multipart do pliku tymczasowego i przekazuje go do magazynu. Plik tymczasowy jest
+     * usuwany, a zezwolenie zwalniane zawsze - także gdy pliku nie udało się utworzyć lub usunąć.
+     *
+     * @throws UploadCapacityExceededException jeśli zezwolenie nie zostało uzyskane w limicie czasu
+     */
+    public <T> T withTempFile(MultipartFile file, UploadAction<T> action) throws IOException {
+        acquireUploadPermit();
+        Path tempFile = null;
+        try {
+            tempFile = Files.createTempFile("upload-", ".img");
+            // przeniesienie/kopiowanie pliku tymczasowego multipart - bez ładowania całości na stertę
+            file.transferTo(tempFile);
+            return action.apply(tempFile);
+        } finally {
+            try {
+                if (tempFile != null) {
+                    Files.deleteIfExists(tempFile);
+                }
+            } finally {
+                uploadPermits.release();
+            }
+        }
+    }
+
+    private void acquireUploadPermit() {
+        try {
+            if (!uploadPermits.tryAcquire(uploadAcquireTimeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new UploadCapacityExceededException("Zbyt wiele równoczesnych przesyłań, spróbuj ponownie za chwilę");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new UploadCapacityExceededException("Przesyłanie zostało przerwane");
+        }
+    }
+
+    @FunctionalInterface
+    public interface UploadAction<T> {
+        T apply(Path tempFile) throws IOException;
+    }
+}
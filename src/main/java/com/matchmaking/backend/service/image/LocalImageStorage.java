@@ -0,0 +1,263 @@
+package com.matchmaking.backend.service.image;
+
+import com.matchmaking.backend.exception.ResourceNotFoundException;
+import com.matchmaking.backend.model.image.ImageMetadataDTO;
+import com.matchmaking.backend.model.image.ImageVersionsDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * Magazyn zdjęć na dysku lokalnym - do wdrożeń on-prem i testów obciążeniowych bez Cloudinary.
+ * <p>
+ * Wersje pochodne (galeria, miniatura, avatar) są skalowane w procesie (Java2D) do tych samych
+ * rozmiarów co w Cloudinary i zapisywane jako JPEG w katalogu zdjęcia:
+ * {@code <root>/user_profiles/<uuid>/<wersja>.jpg}. Pliki serwuje {@code LocalImageFileController}.
+ */
+@Service
+@ConditionalOnProperty(name = "app.images.storage", havingValue = "local")
+public class LocalImageStorage implements ImageStorage {
+
+    private static final String FOLDER = "user_profiles";
+    private static final String FORMAT = "jpg";
+    private static final Pattern PUBLIC_ID = Pattern.compile(FOLDER + "/[0-9a-f-]{36}");
+
+    private final Path root;
+    private final String baseUrl;
+    private final ImageUploadBuffer uploadBuffer;
+
+    public LocalImageStorage(
+            @Value("${app.images.local.root:./data/images}") String root,
+            @Value("${app.images.local.base-url:http://localhost:8080/api/images/files}") String baseUrl,
+            ImageUploadBuffer uploadBuffer
+    ) throws IOException {
+        this.root = Paths.get(root).toAbsolutePath().normalize();
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.uploadBuffer = uploadBuffer;
+        Files.createDirectories(this.root);
+    }
+
+    @Override
+    public ImageVersionsDTO uploadImage(MultipartFile file) throws IOException {
+        String publicId = FOLDER + "/" + UUID.randomUUID();
+        Path dir = root.resolve(publicId);
+
+        // multipart trafia do pliku tymczasowego - dekodowanie czyta z dysku, nie z tablicy bajtów
+        return uploadBuffer.withTempFile(file, tempFile -> storeVersions(publicId, dir, tempFile));
+    }
+
+    private ImageVersionsDTO storeVersions(String publicId, Path dir, Path tempFile) throws IOException {
+        try {
+            BufferedImage source = ImageIO.read(tempFile.toFile());
+            if (source == null) {
+                throw new IllegalStateException("Nieobsługiwany format zdjęcia");
+            }
+
+            Files.createDirectories(dir);
+
+            // 1) oryginał ograniczony do ORIGINAL_MAX_SIZE (crop "limit")
+            BufferedImage original = limit(source, ORIGINAL_MAX_SIZE, ORIGINAL_MAX_SIZE);
+            Path originalPath = write(original, dir, "original");
+
+            // 2) galeria: max szerokość, proporcje zachowane
+            write(limit(original, GALLERY_WIDTH, Integer.MAX_VALUE), dir, "gallery");
+
+            // 3) miniatura: dokładny kwadrat (crop "fill")
+            write(fill(original, THUMBNAIL_SIZE), dir, "thumbnail");
+
+            return new ImageVersionsDTO(
+                    publicId,
+                    url(publicId, "original"),
+                    url(publicId, "gallery"),
+                    url(publicId, "thumbnail"),
+                    new ImageMetadataDTO(original.getWidth(), original.getHeight(), Files.size(originalPath), FORMAT),
+                    false
+            );
+        } catch (IOException | RuntimeException e) {
+            FileSystemUtils.deleteRecursively(dir);
+            throw e;
+        }
+    }
+
+    @Override
+    public String cropToGallery(String publicId, int x, int y, int w, int h) throws IOException {
+        BufferedImage cropped = crop(readOriginal(publicId), x, y, w, h);
+        String name = cropName("gallery", x, y, w, h);
+        writeCrop(limit(cropped, GALLERY_WIDTH, Integer.MAX_VALUE), directory(publicId), "gallery", name);
+        return url(publicId, name);
+    }
+
+    @Override
+    public String cropToThumbnail(String publicId, int x, int y, int w, int h) throws IOException {
+        BufferedImage cropped = crop(readOriginal(publicId), x, y, w, h);
+        String name = cropName("thumbnail", x, y, w, h);
+        writeCrop(limit(cropped, THUMBNAIL_SIZE, THUMBNAIL_SIZE), directory(publicId), "thumbnail", name);
+        return url(publicId, name);
+    }
+
+    @Override
+    public String cropToAvatar(String publicId, int x, int y, int w, int h) throws IOException {
+        BufferedImage cropped = crop(readOriginal(publicId), x, y, w, h);
+        String name = cropName("avatar", x, y, w, h);
+        writeCrop(scale(cropped, AVATAR_SIZE, AVATAR_SIZE), directory(publicId), "avatar", name);
+        return url(publicId, name);
+    }
+
+    @Override
+    public void deleteImage(String publicId) throws IOException {
+        FileSystemUtils.deleteRecursively(directory(publicId));
+    }
+
+    @Override
+    public ImageMetadataDTO getImageMetadata(String publicId) throws IOException {
+        Path original = directory(publicId).resolve("original." + FORMAT);
+        if (!Files.exists(original)) {
+            throw new ResourceNotFoundException("Zdjęcie " + publicId + " nie istnieje");
+        }
+        // odczyt samego nagłówka - bez dekodowania pikseli
+        try (ImageInputStream input = ImageIO.createImageInputStream(original.toFile())) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                throw new IllegalStateException("Nieobsługiwany format zdjęcia");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input);
+                return new ImageMetadataDTO(reader.getWidth(0), reader.getHeight(0), Files.size(original), FORMAT);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Rozwiązuje ścieżkę pliku wersji zdjęcia z ochroną przed wyjściem poza katalog magazynu.
+     *
+     * @return ścieżka istniejącego pliku
+     * @throws ResourceNotFoundException jeśli plik nie istnieje
+     */
+    public Path resolveFile(String publicId, String fileName) {
+        Path file = directory(publicId).resolve(fileName).normalize();
+        if (!file.startsWith(root) || !Files.isRegularFile(file)) {
+            throw new ResourceNotFoundException("Plik nie istnieje");
+        }
+        return file;
+    }
+
+    // Metody pomocnicze
+
+    private Path directory(String publicId) {
+        if (publicId == null || !PUBLIC_ID.matcher(publicId).matches()) {
+            throw new ResourceNotFoundException("Nieprawidłowy identyfikator zdjęcia");
+        }
+        return root.resolve(publicId);
+    }
+
+    private BufferedImage readOriginal(String publicId) throws IOException {
+        BufferedImage image = ImageIO.read(resolveFile(publicId, "original." + FORMAT).toFile());
+        if (image == null) {
+            throw new IllegalStateException("Nie można odczytać zdjęcia " + publicId);
+        }
+        return image;
+    }
+
+    private Path write(BufferedImage image, Path dir, String name) throws IOException {
+        Path target = dir.resolve(name + "." + FORMAT);
+        Path temp = Files.createTempFile(dir, name, ".tmp");
+        try {
+            if (!ImageIO.write(image, FORMAT, temp.toFile())) {
+                throw new IllegalStateException("Brak kodera JPEG");
+            }
+            // podmiana atomowa - serwowany plik nigdy nie jest zapisany częściowo
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        return target;
+    }
+
+    /**
+     * Zapisuje nowy kadr i usuwa poprzednie kadry tej samej wersji - nazwa pliku zawiera współrzędne
+     * (nowy URL omija cache przeglądarki), więc bez sprzątania każdy ponowny kadr zostawiałby plik na dysku.
+     */
+    private void writeCrop(BufferedImage image, Path dir, String version, String name) throws IOException {
+        Path target = write(image, dir, name);
+        try (DirectoryStream<Path> previous = Files.newDirectoryStream(dir, version + "_*." + FORMAT)) {
+            for (Path file : previous) {
+                if (!file.equals(target)) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+    }
+
+    private String url(String publicId, String name) {
+        return baseUrl + "/" + publicId + "/" + name + "." + FORMAT;
+    }
+
+    private String cropName(String version, int x, int y, int w, int h) {
+        return version + "_" + x + "_" + y + "_" + w + "_" + h;
+    }
+
+    private BufferedImage crop(BufferedImage image, int x, int y, int w, int h) {
+        int cx = Math.max(0, Math.min(x, image.getWidth() - 1));
+        int cy = Math.max(0, Math.min(y, image.getHeight() - 1));
+        int cw = Math.max(1, Math.min(w, image.getWidth() - cx));
+        int ch = Math.max(1, Math.min(h, image.getHeight() - cy));
+        return image.getSubimage(cx, cy, cw, ch);
+    }
+
+    /**
+     * Zmniejsza proporcjonalnie, aby zmieścić się w maxW×maxH (nigdy nie powiększa).
+     */
+    private BufferedImage limit(BufferedImage image, int maxW, int maxH) {
+        double ratio = Math.min(1.0, Math.min((double) maxW / image.getWidth(), (double) maxH / image.getHeight()));
+        int w = Math.max(1, (int) Math.round(image.getWidth() * ratio));
+        int h = Math.max(1, (int) Math.round(image.getHeight() * ratio));
+        return scale(image, w, h);
+    }
+
+    /**
+     * Wypełnia kwadrat size×size: skaluje krótszy bok do size i przycina środek.
+     */
+    private BufferedImage fill(BufferedImage image, int size) {
+        int side = Math.min(image.getWidth(), image.getHeight());
+        int x = (image.getWidth() - side) / 2;
+        int y = (image.getHeight() - side) / 2;
+        return scale(image.getSubimage(x, y, side, side), size, size);
+    }
+
+    private BufferedImage scale(BufferedImage image, int w, int h) {
+        // JPEG nie obsługuje kanału alfa - zawsze rysujemy na obrazie RGB
+        BufferedImage result = new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = result.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g.drawImage(image, 0, 0, w, h, Color.WHITE, null);
+        } finally {
+            g.dispose();
+        }
+        return result;
+    }
+}
@@ -0,0 +1,54 @@
+package com.matchmaking.backend.service.job;
+
+import com.matchmaking.backend.model.job.BackgroundJobDTO;
+import com.matchmaking.backend.model.job.BackgroundJobStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Stan zadania działającego w tle. Aktualizowany przez wątek zadania, odczytywany przez endpoint statusu.
+ */
+public class BackgroundJob {
+
+    private final String id;
+    private final String type;
+    private final LocalDateTime startedAt = LocalDateTime.now();
+
+    private volatile BackgroundJobStatus status = BackgroundJobStatus.RUNNING;
+    private volatile long processed;
+    private volatile long total;
+    private volatile LocalDateTime finishedAt;
+    private volatile String error;
+
+    BackgroundJob(String id, String type) {
+        this.id = id;
+        this.type = type;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setTotal(long total) {
+        this.total = total;
+    }
+
+    public void setProcessed(long processed) {
+        this.processed = processed;
+    }
+
+    public void complete() {
+        this.finishedAt = LocalDateTime.now();
+        this.status = BackgroundJobStatus.COMPLETED;
+    }
+
+    public void fail(String error) {
+        this.error = error;
+        this.finishedAt = LocalDateTime.now();
+        this.status = BackgroundJobStatus.FAILED;
+    }
+
+    public BackgroundJobDTO toDTO() {
+        return new BackgroundJobDTO(id, type, status, processed, total, startedAt, finishedAt, error);
+    }
+}
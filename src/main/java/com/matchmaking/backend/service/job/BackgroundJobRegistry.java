@@ -0,0 +1,36 @@
+package com.matchmaking.backend.service.job;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.matchmaking.backend.exception.ResourceNotFoundException;
+import com.matchmaking.backend.model.job.BackgroundJobDTO;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Rejestr zadań w tle (w pamięci instancji). Wpisy wygasają dobę po utworzeniu.
+ */
+@Service
+public class BackgroundJobRegistry {
+
+    private final Cache<String, BackgroundJob> jobs = Caffeine.newBuilder()
+            .maximumSize(1000)
+            .expireAfterWrite(Duration.ofDays(1))
+            .build();
+
+    public BackgroundJob create(String type) {
+        BackgroundJob job = new BackgroundJob(UUID.randomUUID().toString(), type);
+        jobs.put(job.getId(), job);
+        return job;
+    }
+
+    public BackgroundJobDTO getJob(String jobId) {
+        BackgroundJob job = jobs.getIfPresent(jobId);
+        if (job == null) {
+            throw new ResourceNotFoundException("Zadanie o ID " + jobId + " nie istnieje");
+        }
+        return job.toDTO();
+    }
+}
@@ -0,0 +1,161 @@
+package com.matchmaking.backend.service.notification;
+
+import com.matchmaking.backend.model.notification.NotificationEvent;
+import com.matchmaking.backend.model.notification.NotificationType;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Asynchroniczny zapis powiadomień.
+ * <p>
+ * Zdarzenia {@link NotificationEvent} trafiają po commicie transakcji źródłowej do ograniczonej kolejki,
+ * którą cyklicznie opróżnia zapis w tle - wsadowo przez JDBC (encja ma ID typu IDENTITY,
+ * więc Hibernate nie potrafi batchować takich INSERT-ów).
+ * <p>
+ * Powiadomienia typu MESSAGE z tej samej konwersacji są łączone: w obrębie jednego wsadu zostaje
+ * najnowsze, a jeśli odbiorca ma już nieprzeczytane powiadomienie młodsze niż okno łączenia,
+ * jest ono aktualizowane zamiast wstawiania nowego.
+ * <p>
+ * Każdy wsad zapisywany jest we własnej transakcji (REQUIRES_NEW) - także wtedy, gdy zapis następuje
+ * synchronicznie w fazie po commicie transakcji źródłowej, której połączenie jest wciąż związane z wątkiem,
+ * a zapisy na nim nie zostałyby już zatwierdzone.
+ */
+@Component
+public class NotificationBatchWriter {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO notifications (user_id, type, content, read, reference_id, target_profile_id, created_at) " +
+                    "VALUES (?, ?, ?, false, ?, ?, ?)";
+
+    private static final String COALESCE_SQL =
+            "UPDATE notifications SET content = ?, created_at = ? " +
+                    "WHERE user_id = ? AND type = ? AND reference_id = ? AND read = false AND created_at > ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate writeTransaction;
+    private final BlockingQueue<NotificationEvent> queue;
+    private final int batchSize;
+    private final long coalesceWindowSeconds;
+
+    public NotificationBatchWriter(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.notifications.queue-capacity:10000}") int queueCapacity,
+            @Value("${app.notifications.batch-size:500}") int batchSize,
+            @Value("${app.notifications.coalesce-window-seconds:60}") long coalesceWindowSeconds
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.writeTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.coalesceWindowSeconds = coalesceWindowSeconds;
+    }
+
+    /**
+     * Przyjmuje zdarzenie po commicie transakcji (lub od razu, jeśli zostało opublikowane poza transakcją).
+     * Gdy kolejka jest pełna, wsad zapisywany jest synchronicznie w nowej transakcji - powiadomienia nie są gubione.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onNotificationEvent(NotificationEvent event) {
+        while (!queue.offer(event)) {
+            flush();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.notifications.flush-interval-ms:500}")
+    public void flush() {
+        List<NotificationEvent> batch = new ArrayList<>(batchSize);
+        while (queue.drainTo(batch, batchSize) > 0) {
+            List<NotificationEvent> events = coalesce(batch);
+            writeTransaction.executeWithoutResult(status -> write(events));
+            batch.clear();
+        }
+    }
+
+    /**
+     * Zapisuje powiadomienia od razu, w bieżącej transakcji, z pominięciem kolejki - dla operacji
+     * zbiorczych, których liczba powiadomień mogłaby przepełnić kolejkę; przy wycofaniu transakcji
+     * powiadomienia znikają razem z nią.
+     */
+    public void writeInCurrentTransaction(List<NotificationEvent> events) {
+        write(coalesce(events));
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    /**
+     * Łączy powiadomienia MESSAGE o tej samej konwersacji w obrębie wsadu (zostaje najnowsze).
+     */
+    private List<NotificationEvent> coalesce(List<NotificationEvent> batch) {
+        Map<Object, NotificationEvent> result = new LinkedHashMap<>();
+        for (NotificationEvent event : batch) {
+            if (isCoalescable(event)) {
+                result.put(List.of(event.getUserId(), event.getReferenceId()), event);
+            } else {
+                result.put(new Object(), event);
+            }
+        }
+        return new ArrayList<>(result.values());
+    }
+
+    private void write(List<NotificationEvent> events) {
+        List<NotificationEvent> toInsert = new ArrayList<>(events.size());
+        List<NotificationEvent> coalescable = new ArrayList<>();
+        for (NotificationEvent event : events) {
+            (isCoalescable(event) ? coalescable : toInsert).add(event);
+        }
+
+        if (!coalescable.isEmpty()) {
+            Timestamp windowStart = Timestamp.valueOf(LocalDateTime.now().minusSeconds(coalesceWindowSeconds));
+            int[] updated = jdbcTemplate.batchUpdate(COALESCE_SQL, coalescable, coalescable.size(), (ps, event) -> {
+                ps.setString(1, event.getContent());
+                ps.setTimestamp(2, Timestamp.valueOf(event.getCreatedAt()));
+                ps.setLong(3, event.getUserId());
+                ps.setString(4, event.getType().name());
+                ps.setLong(5, event.getReferenceId());
+                ps.setTimestamp(6, windowStart);
+            })[0];
+            for (int i = 0; i < coalescable.size(); i++) {
+                if (updated[i] == 0) {
+                    toInsert.add(coalescable.get(i));
+                }
+            }
+        }
+
+        if (!toInsert.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_SQL, toInsert, toInsert.size(), (ps, event) -> {
+                ps.setLong(1, event.getUserId());
+                ps.setString(2, event.getType().name());
+                ps.setString(3, event.getContent());
+                ps.setObject(4, event.getReferenceId());
+                ps.setObject(5, event.getTargetProfileId());
+                ps.setTimestamp(6, Timestamp.valueOf(event.getCreatedAt()));
+            });
+        }
+    }
+
+    private boolean isCoalescable(NotificationEvent event) {
+        return event.getType() == NotificationType.MESSAGE && event.getReferenceId() != null;
+    }
+}
@@ -3,18 +3,28 @@ package com.matchmaking.backend.service.notification;
 import com.matchmaking.backend.model.auth.User;
 import com.matchmaking.backend.model.notification.Notification;
 import com.matchmaking.backend.model.notification.NotificationDTO;
+import com.matchmaking.backend.model.notification.NotificationEvent;
 import com.matchmaking.backend.model.notification.NotificationType;
-import com.matchmaking.backend.model.recommendation.UserRecommendation;
 import com.matchmaking.backend.repository.NotificationRepository;
 import com.matchmaking.backend.repository.UserRecommendationRepository;
 import com.matchmaking.backend.service.UserService;
+import com.matchmaking.backend.service.image.AvatarResolver;
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -23,6 +33,43 @@ public class NotificationService {
     private final NotificationRepository notificationRepository;
     private final UserService userService;
     private final UserRecommendationRepository userRecommendationRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final AvatarResolver avatarResolver;
+    private final NotificationBatchWriter notificationBatchWriter;
+
+    /**
+     * Zleca utworzenie powiadomienia bez zapisu w bieżącej transakcji.
+     * Powiadomienie zostanie zapisane w tle po commicie (zob. {@link NotificationBatchWriter});
+     * przy wycofaniu transakcji nie powstaje.
+     */
+    public void publishNotification(Long userId, NotificationType type, String content, Long referenceId) {
+        publishNotification(userId, type, content, referenceId, null);
+    }
+
+    /**
+     * @param targetProfileId profil, do którego prowadzi powiadomienie (zapisywany od razu, aby odczyt nie wymagał złączeń)
+     */
+    public void publishNotification(
+            Long userId,
+            NotificationType type,
+            String content,
+            Long referenceId,
+            Long targetProfileId
+    ) {
+        eventPublisher.publishEvent(
+                new NotificationEvent(userId, type, content, referenceId, targetProfileId, LocalDateTime.now())
+        );
+    }
+
+    /**
+     * Zapisuje powiadomienia jednym wsadem JDBC w bieżącej transakcji (bez kolejki zapisu w tle).
+     */
+    @Transactional
+    public void createNotifications(List<NotificationEvent> events) {
+        if (!events.isEmpty()) {
+            notificationBatchWriter.writeInCurrentTransaction(events);
+        }
+    }
 
     @Transactional
     public Notification createNotification(User user, NotificationType type, String content, Long referenceId) {
@@ -45,9 +92,16 @@ public class NotificationService {
 
     @Transactional(readOnly = true)
     public Page<NotificationDTO> getUserNotifications(Long userId, Pageable pageable) {
-        User user = userService.getUserById(userId);
-        return notificationRepository.findByUserOrderByCreatedAtDesc(user, pageable)
-                .map(this::mapToDTO);
+        Page<Notification> notifications = notificationRepository.findByUserIdOrderByCreatedAtDesc(userId, pageable);
+        Map<Long, Long> legacyTargets = resolveLegacyTargets(notifications.getContent(), userId);
+
+        // zdjęcie powiadomienia to avatar profilu, którego dotyczy - jedno zapytanie (lub cache) na stronę
+        Map<Long, String> avatars = avatarResolver.resolve(notifications.getContent().stream()
+                .map(notification -> targetProfileId(notification, legacyTargets))
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet()));
+
+        return notifications.map(notification -> mapToDTO(notification, legacyTargets, avatars));
     }
 
     @Transactional
@@ -67,37 +121,70 @@ public class NotificationService {
         return notificationRepository.countByUserAndReadFalse(user);
     }
 
-    private NotificationDTO mapToDTO(Notification notification) {
+    /**
+     * Uzupełnia targetProfileId powiadomień utworzonych przed wprowadzeniem tej kolumny.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfillTargetProfileIds() {
+        if (notificationRepository.existsResolvableRecommendationWithoutTarget()) {
+            notificationRepository.backfillRecommendationTargets();
+        }
+    }
+
+    /**
+     * Dla powiadomień o rekomendacjach bez zapisanego targetProfileId ustala go jednym zapytaniem dla całej strony.
+     *
+     * @return mapa: ID rekomendacji -> ID polecanego profilu
+     */
+    private Map<Long, Long> resolveLegacyTargets(List<Notification> notifications, Long userId) {
+        List<Long> recommendationIds = notifications.stream()
+                .filter(n -> n.getType() == NotificationType.NEW_RECOMMENDATION)
+                .filter(n -> n.getTargetProfileId() == null && n.getReferenceId() != null)
+                .map(Notification::getReferenceId)
+                .distinct()
+                .toList();
+
+        if (recommendationIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        Map<Long, Long> targets = new HashMap<>();
+        for (Object[] row : userRecommendationRepository.findTargetProfileIds(recommendationIds, userId)) {
+            targets.put((Long) row[0], (Long) row[1]);
+        }
+        return targets;
+    }
+
+    private Long targetProfileId(Notification notification, Map<Long, Long> legacyTargets) {
+        if (notification.getTargetProfileId() != null) {
+            return notification.getTargetProfileId();
+        }
+        if (notification.getType() == NotificationType.NEW_RECOMMENDATION) {
+            return legacyTargets.get(notification.getReferenceId());
+        }
+        return null;
+    }
+
+    private NotificationDTO mapToDTO(
+            Notification notification,
+            Map<Long, Long> legacyTargets,
+            Map<Long, String> avatars
+    ) {
+        Long targetProfileId = targetProfileId(notification, legacyTargets);
         NotificationDTO dto = new NotificationDTO();
 
         dto.setId(notification.getId());
         dto.setContent(notification.getContent());
         dto.setRead(notification.isRead());
         dto.setCreatedAt(notification.getCreatedAt());
-        dto.setPhotoUrl("https://upload.wikimedia.org/wikipedia/commons/thumb/0/07/Felidae_Prionailurus_rubiginosus_phillipsi_3.jpg/1280px-Felidae_Prionailurus_rubiginosus_phillipsi_3.jpg");
+        dto.setPhotoUrl(targetProfileId != null
+                ? avatars.getOrDefault(targetProfileId, AvatarResolver.DEFAULT_AVATAR_URL)
+                : AvatarResolver.DEFAULT_AVATAR_URL);
         dto.setType(notification.getType());
 
-        // Dodanie targetId bezpośrednio w NotificationService
         if (notification.getType().equals(NotificationType.NEW_RECOMMENDATION)) {
-            try {
-                UserRecommendation recommendation = userRecommendationRepository.findById(notification.getReferenceId())
-                        .orElse(null);
-                if (recommendation != null) {
-                    User currentUser = userService.getCurrentUser();
-
-                    // Przeniesiona logika z RecommendationService.getRecommendedProfile
-                    Long profileId;
-                    if (recommendation.getFirstProfile().getUser().getId().equals(currentUser.getId())) {
-                        profileId = recommendation.getSecondProfile().getId();
-                    } else {
-                        profileId = recommendation.getFirstProfile().getId();
-                    }
-
-                    dto.setTargetId(profileId);
-                }
-            } catch (Exception e) {
-                // Obsługa błędu lub logowanie
-            }
+            dto.setTargetId(targetProfileId);
         }
         return dto;
     }
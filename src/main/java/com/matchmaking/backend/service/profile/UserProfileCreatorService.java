@@ -2,9 +2,9 @@ package com.matchmaking.backend.service.profile;
 
 import com.matchmaking.backend.model.auth.User;
 import com.matchmaking.backend.model.profile.UserProfile;
-import com.matchmaking.backend.model.section.UserProfileSectionDefinition;
+import com.matchmaking.backend.model.section.SectionDefinitionSnapshot;
 import com.matchmaking.backend.repository.UserProfileRepository;
-import com.matchmaking.backend.repository.UserProfileSectionDefinitionRepository;
+import com.matchmaking.backend.service.section.SectionDefinitionCache;
 import com.matchmaking.backend.service.section.UserProfileSectionInitializerService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
@@ -18,7 +18,7 @@ public class UserProfileCreatorService {
 
     private final UserProfileRepository userProfileRepository;
     private final UserProfileSectionInitializerService sectionInitializerService;
-    private final UserProfileSectionDefinitionRepository sectionDefinitionRepository;
+    private final SectionDefinitionCache definitionCache;
 
     @Transactional
     public UserProfile createUserProfile(User user, String firstName, String lastName) {
@@ -39,8 +39,9 @@ public class UserProfileCreatorService {
 
     @Transactional
     public void initializeProfileSections(UserProfile userProfile) {
-        List<UserProfileSectionDefinition> definitions =
-                sectionDefinitionRepository.findAllByVisibleTrueOrderByDisplayOrderAsc();
-        sectionInitializerService.initializeProfileSections(userProfile, definitions);
+        List<Long> definitionIds = definitionCache.get().getVisible().stream()
+                .map(SectionDefinitionSnapshot.Definition::getId)
+                .toList();
+        sectionInitializerService.initializeProfileSections(userProfile, definitionIds);
     }
 }
\ No newline at end of file
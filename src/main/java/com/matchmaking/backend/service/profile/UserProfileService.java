@@ -5,6 +5,7 @@ import com.matchmaking.backend.model.profile.UserProfile;
 import com.matchmaking.backend.model.profile.UserProfileDTO;
 import com.matchmaking.backend.service.UserService;
 import com.matchmaking.backend.repository.UserProfileRepository;
+import com.matchmaking.backend.service.search.ProfileSearchIndex;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -18,6 +19,7 @@ public class UserProfileService {
     private final UserService userService;
     private final UserProfileContextService userProfileContextService;
     private final UserProfileRepository userProfileRepository;
+    private final ProfileSearchIndex searchIndex;
 
     /**
      Pobiera profil zalogowanego użytkownika
@@ -62,6 +64,7 @@ public class UserProfileService {
         UserProfile profile = getAuthenticatedUserProfile();
         updateProfileFields(profile, profileDTO);
         userProfileRepository.save(profile);
+        searchIndex.profileChanged(profile.getId());
         return ResponseEntity.ok("Profil został zaktualizowany");
     }
 
@@ -82,6 +85,7 @@ public class UserProfileService {
 
         updateProfileFields(profile, profileDTO);
         userProfileRepository.save(profile);
+        searchIndex.profileChanged(profile.getId());
         return ResponseEntity.ok("Profil został zaktualizowany");
     }
 
@@ -97,6 +101,7 @@ public class UserProfileService {
                 .orElseThrow(() -> new RuntimeException("Nie znaleziono profilu użytkownika"));
         updateProfileFields(profile, profileDTO);
         userProfileRepository.save(profile);
+        searchIndex.profileChanged(profile.getId());
         return ResponseEntity.ok("Profil został zaktualizowany przez administratora");
     }
 
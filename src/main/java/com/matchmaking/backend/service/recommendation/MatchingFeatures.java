@@ -0,0 +1,121 @@
+package com.matchmaking.backend.service.recommendation;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Cechy profili dla silnika dopasowań, trzymane w tablicach prymitywów (indeks = pozycja profilu).
+ * <p>
+ * Treści sekcji są sprowadzane do sygnatury {@value #SIGNATURE_BITS}-bitowej (zbiór haszy słów),
+ * więc podobieństwo treści dwóch profili to kilka operacji AND/OR i zliczeń bitów.
+ */
+final class MatchingFeatures {
+
+    static final int SIGNATURE_BITS = 256;
+    static final int SIGNATURE_WORDS = SIGNATURE_BITS / Long.SIZE;
+
+    // słowa krótsze nie niosą informacji (spójniki, przyimki)
+    private static final int MIN_TOKEN_LENGTH = 3;
+
+    private long[] profileIds;
+    private byte[] genders;
+    private int[] birthDays;
+    private long[] signatures;
+    private int size;
+
+    MatchingFeatures(int initialCapacity) {
+        int capacity = Math.max(initialCapacity, 16);
+        this.profileIds = new long[capacity];
+        this.genders = new byte[capacity];
+        this.birthDays = new int[capacity];
+        this.signatures = new long[capacity * SIGNATURE_WORDS];
+    }
+
+    /**
+     * Dodaje profil; profile muszą być dodawane w kolejności rosnących ID.
+     *
+     * @param gender   numer porządkowy {@code Gender}
+     * @param birthDay data urodzenia jako dzień epoki
+     */
+    void addProfile(long profileId, int gender, int birthDay) {
+        if (size == profileIds.length) {
+            int capacity = size * 2;
+            profileIds = Arrays.copyOf(profileIds, capacity);
+            genders = Arrays.copyOf(genders, capacity);
+            birthDays = Arrays.copyOf(birthDays, capacity);
+            signatures = Arrays.copyOf(signatures, capacity * SIGNATURE_WORDS);
+        }
+        profileIds[size] = profileId;
+        genders[size] = (byte) gender;
+        birthDays[size] = birthDay;
+        size++;
+    }
+
+    /**
+     * Dopisuje słowa treści sekcji do sygnatury profilu (profile spoza zbioru są pomijane).
+     */
+    void addContent(long profileId, String content) {
+        int index = indexOf(profileId);
+        if (index < 0 || content == null) {
+            return;
+        }
+        int offset = index * SIGNATURE_WORDS;
+        for (String token : content.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (token.length() >= MIN_TOKEN_LENGTH) {
+                int bit = mix(token.hashCode()) & (SIGNATURE_BITS - 1);
+                signatures[offset + (bit >>> 6)] |= 1L << bit;
+            }
+        }
+    }
+
+    int indexOf(long profileId) {
+        return Arrays.binarySearch(profileIds, 0, size, profileId);
+    }
+
+    int size() {
+        return size;
+    }
+
+    long profileId(int index) {
+        return profileIds[index];
+    }
+
+    int gender(int index) {
+        return genders[index];
+    }
+
+    int birthDay(int index) {
+        return birthDays[index];
+    }
+
+    /**
+     * Podobieństwo Jaccarda sygnatur treści dwóch profili (0..1).
+     */
+    float contentSimilarity(int first, int second) {
+        int a = first * SIGNATURE_WORDS;
+        int b = second * SIGNATURE_WORDS;
+        int intersection = 0;
+        int union = 0;
+        for (int w = 0; w < SIGNATURE_WORDS; w++) {
+            intersection += Long.bitCount(signatures[a + w] & signatures[b + w]);
+            union += Long.bitCount(signatures[a + w] | signatures[b + w]);
+        }
+        return union == 0 ? 0f : (float) intersection / union;
+    }
+
+    /**
+     * Klucz nieuporządkowanej pary profili (po indeksach).
+     */
+    static long pairKey(int first, int second) {
+        int low = Math.min(first, second);
+        int high = Math.max(first, second);
+        return ((long) low << 32) | high;
+    }
+
+    private static int mix(int hash) {
+        hash ^= hash >>> 16;
+        hash *= 0x7feb352d;
+        hash ^= hash >>> 15;
+        return hash;
+    }
+}
@@ -0,0 +1,290 @@
+package com.matchmaking.backend.service.recommendation;
+
+import com.matchmaking.backend.model.notification.NotificationEvent;
+import com.matchmaking.backend.model.notification.NotificationType;
+import com.matchmaking.backend.model.recommendation.RecommendationPairDTO;
+import com.matchmaking.backend.model.recommendation.RecommendationPairOutcome;
+import com.matchmaking.backend.model.recommendation.RecommendationPairResultDTO;
+import com.matchmaking.backend.model.recommendation.RecommendationStatus;
+import com.matchmaking.backend.service.UserService;
+import com.matchmaking.backend.service.notification.NotificationService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Zbiorcze tworzenie rekomendacji: profile i istniejące pary sprawdzane są po jednym zapytaniu
+ * na cały wsad (tablice PostgreSQL), nowe rekomendacje wstawiane wsadowo przez JDBC
+ * (pary kanoniczne, {@code ON CONFLICT DO NOTHING} na wypadek równoległego utworzenia).
+ * <p>
+ * Powiadomienia (dwa na każdą utworzoną parę) zapisywane są wsadowo w tej samej transakcji przez
+ * {@link NotificationService#createNotifications} - nie trafiają do kolejki zapisu w tle, której
+ * pojemność ({@code app.notifications.queue-capacity}) byłaby dla dużego żądania za mała.
+ */
+@Service
+@RequiredArgsConstructor
+public class RecommendationBulkService {
+
+    private static final String PROFILES_SQL =
+            "SELECT p.id, p.user_id, p.first_name FROM user_profiles p WHERE p.id = ANY (?)";
+
+    private static final String EXISTING_PAIRS_SQL =
+            "SELECT r.id, r.first_profile_id, r.second_profile_id FROM user_recommendations r " +
+                    "JOIN unnest(?, ?) AS pair(first_id, second_id) " +
+                    "ON r.first_profile_id = pair.first_id AND r.second_profile_id = pair.second_id";
+
+    private static final String INSERT_SQL =
+            "INSERT INTO user_recommendations (first_profile_id, second_profile_id, status, created_at, created_by) " +
+                    "VALUES (?, ?, ?, ?, ?) ON CONFLICT (first_profile_id, second_profile_id) DO NOTHING";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final UserService userService;
+    private final NotificationService notificationService;
+
+    @Value("${app.recommendations.bulk.max-pairs:50000}")
+    private int maxPairs;
+
+    @Value("${app.recommendations.bulk.batch-size:1000}")
+    private int batchSize;
+
+    /**
+     * Tworzy rekomendacje dla listy par profili
+     *
+     * @return wynik dla każdej pary, w kolejności z żądania
+     */
+    @Transactional
+    public List<RecommendationPairResultDTO> createRecommendations(List<RecommendationPairDTO> pairs) {
+        if (pairs.size() > maxPairs) {
+            throw new IllegalArgumentException("Maksymalna liczba par w jednym żądaniu to " + maxPairs);
+        }
+
+        List<RecommendationPairResultDTO> results = new ArrayList<>(pairs.size());
+        Set<Long> profileIds = new HashSet<>();
+        for (RecommendationPairDTO pair : pairs) {
+            results.add(new RecommendationPairResultDTO(pair.getFirstProfileId(), pair.getSecondProfileId(), null, null));
+            if (pair.getFirstProfileId() != null && pair.getSecondProfileId() != null) {
+                profileIds.add(pair.getFirstProfileId());
+                profileIds.add(pair.getSecondProfileId());
+            }
+        }
+
+        Map<Long, ProfileRow> profiles = loadProfiles(profileIds);
+
+        // pary do sprawdzenia: poprawne, z istniejącymi profilami, pierwsze wystąpienie w żądaniu
+        Map<PairKey, RecommendationPairResultDTO> candidates = new HashMap<>();
+        for (RecommendationPairResultDTO result : results) {
+            Long first = result.getFirstProfileId();
+            Long second = result.getSecondProfileId();
+            if (first == null || second == null || first.equals(second)) {
+                result.setOutcome(RecommendationPairOutcome.INVALID_PAIR);
+            } else if (!profiles.containsKey(first) || !profiles.containsKey(second)) {
+                result.setOutcome(RecommendationPairOutcome.PROFILE_NOT_FOUND);
+            } else if (candidates.putIfAbsent(PairKey.of(first, second), result) != null) {
+                result.setOutcome(RecommendationPairOutcome.DUPLICATE_IN_REQUEST);
+            }
+        }
+
+        for (Map.Entry<PairKey, Long> existing : findExistingPairs(candidates.keySet()).entrySet()) {
+            RecommendationPairResultDTO result = candidates.remove(existing.getKey());
+            result.setOutcome(RecommendationPairOutcome.ALREADY_EXISTS);
+            result.setRecommendationId(existing.getValue());
+        }
+
+        Map<PairKey, Long> created = insertRecommendations(new ArrayList<>(candidates.keySet()));
+        List<NotificationEvent> notifications = new ArrayList<>(created.size() * 2);
+        LocalDateTime now = LocalDateTime.now();
+
+        for (Map.Entry<PairKey, RecommendationPairResultDTO> candidate : candidates.entrySet()) {
+            RecommendationPairResultDTO result = candidate.getValue();
+            Long recommendationId = created.get(candidate.getKey());
+            if (recommendationId == null) {
+                // utworzona w międzyczasie przez równoległe żądanie
+                result.setOutcome(RecommendationPairOutcome.ALREADY_EXISTS);
+                continue;
+            }
+            result.setOutcome(RecommendationPairOutcome.CREATED);
+            result.setRecommendationId(recommendationId);
+            addNotifications(notifications, result, profiles, now);
+        }
+
+        for (int from = 0; from < notifications.size(); from += batchSize) {
+            notificationService.createNotifications(
+                    notifications.subList(from, Math.min(from + batchSize, notifications.size())));
+        }
+
+        return results;
+    }
+
+    private Map<Long, ProfileRow> loadProfiles(Set<Long> profileIds) {
+        Map<Long, ProfileRow> profiles = new HashMap<>();
+        if (profileIds.isEmpty()) {
+            return profiles;
+        }
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(PROFILES_SQL);
+            ps.setArray(1, con.createArrayOf("bigint", profileIds.toArray()));
+            return ps;
+        }, rs -> {
+            profiles.put(rs.getLong("id"), new ProfileRow(rs.getLong("user_id"), rs.getString("first_name")));
+        });
+        return profiles;
+    }
+
+    /**
+     * Jedno zapytanie dla wszystkich par: mapa para -> ID istniejącej rekomendacji.
+     */
+    private Map<PairKey, Long> findExistingPairs(Set<PairKey> pairs) {
+        Map<PairKey, Long> existing = new HashMap<>();
+        if (pairs.isEmpty()) {
+            return existing;
+        }
+        Long[] firstIds = new Long[pairs.size()];
+        Long[] secondIds = new Long[pairs.size()];
+        int i = 0;
+        for (PairKey pair : pairs) {
+            firstIds[i] = pair.lowId;
+            secondIds[i] = pair.highId;
+            i++;
+        }
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(EXISTING_PAIRS_SQL);
+            ps.setArray(1, con.createArrayOf("bigint", firstIds));
+            ps.setArray(2, con.createArrayOf("bigint", secondIds));
+            return ps;
+        }, rs -> {
+            existing.put(
+                    PairKey.of(rs.getLong("first_profile_id"), rs.getLong("second_profile_id")),
+                    rs.getLong("id")
+            );
+        });
+        return existing;
+    }
+
+    /**
+     * @return mapa: para -> ID utworzonej rekomendacji (bez par utworzonych równolegle przez inne żądanie)
+     */
+    private Map<PairKey, Long> insertRecommendations(List<PairKey> pairs) {
+        Map<PairKey, Long> created = new HashMap<>();
+        if (pairs.isEmpty()) {
+            return created;
+        }
+        Long createdBy = userService.getCurrentUser().getId();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+        for (int from = 0; from < pairs.size(); from += batchSize) {
+            List<PairKey> batch = pairs.subList(from, Math.min(from + batchSize, pairs.size()));
+            KeyHolder keyHolder = new GeneratedKeyHolder();
+            jdbcTemplate.batchUpdate(
+                    con -> con.prepareStatement(INSERT_SQL, new String[]{"id", "first_profile_id", "second_profile_id"}),
+                    new BatchPreparedStatementSetter() {
+                        @Override
+                        public void setValues(PreparedStatement ps, int i) throws SQLException {
+                            PairKey pair = batch.get(i);
+                            ps.setLong(1, pair.lowId);
+                            ps.setLong(2, pair.highId);
+                            ps.setString(3, RecommendationStatus.NEW.name());
+                            ps.setTimestamp(4, now);
+                            ps.setLong(5, createdBy);
+                        }
+
+                        @Override
+                        public int getBatchSize() {
+                            return batch.size();
+                        }
+                    }, keyHolder);
+
+            // wiersze pominięte przez ON CONFLICT nie zwracają kluczy - dopasowanie po parze, nie po pozycji
+            for (Map<String, Object> key : keyHolder.getKeyList()) {
+                created.put(
+                        PairKey.of(((Number) key.get("first_profile_id")).longValue(),
+                                ((Number) key.get("second_profile_id")).longValue()),
+                        ((Number) key.get("id")).longValue()
+                );
+            }
+        }
+        return created;
+    }
+
+    private void addNotifications(
+            List<NotificationEvent> notifications,
+            RecommendationPairResultDTO result,
+            Map<Long, ProfileRow> profiles,
+            LocalDateTime now
+    ) {
+        ProfileRow first = profiles.get(result.getFirstProfileId());
+        ProfileRow second = profiles.get(result.getSecondProfileId());
+
+        notifications.add(new NotificationEvent(
+                first.userId,
+                NotificationType.NEW_RECOMMENDATION,
+                "Administrator polecił Ci nowy profil: " + second.firstName,
+                result.getRecommendationId(),
+                result.getSecondProfileId(),
+                now
+        ));
+
+        notifications.add(new NotificationEvent(
+                second.userId,
+                NotificationType.NEW_RECOMMENDATION,
+                "Administrator polecił Ci nowy profil: " + first.firstName,
+                result.getRecommendationId(),
+                result.getFirstProfileId(),
+                now
+        ));
+    }
+
+    private static final class ProfileRow {
+
+        private final long userId;
+        private final String firstName;
+
+        ProfileRow(long userId, String firstName) {
+            this.userId = userId;
+            this.firstName = firstName;
+        }
+    }
+
+    /**
+     * Para profili w postaci kanonicznej (lowId < highId), jak w tabeli user_recommendations.
+     */
+    private static final class PairKey {
+
+        private final long lowId;
+        private final long highId;
+
+        private PairKey(long lowId, long highId) {
+            this.lowId = lowId;
+            this.highId = highId;
+        }
+
+        static PairKey of(long first, long second) {
+            return new PairKey(Math.min(first, second), Math.max(first, second));
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof PairKey other && lowId == other.lowId && highId == other.highId;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(lowId) * 31 + Long.hashCode(highId);
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package com.matchmaking.backend.service.recommendation;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Silnik generowania kandydatów do rekomendacji.
+ * <p>
+ * Kandydatami profilu są profile przeciwnej płci z różnicą wieku nie większą niż
+ * {@code app.recommendations.engine.max-age-gap-years}. Dzięki grupom posortowanym po dacie urodzenia
+ * każdy profil przegląda tylko okno wiekowe, a nie wszystkie profile. Wynik pary to ważona suma
+ * bliskości wieku i podobieństwa treści sekcji; dla każdego profilu zostaje {@code top-k} najlepszych
+ * kandydatów. Profile oceniane są równolegle (fork-join) - każdy niezależnie, bez współdzielonego stanu.
+ */
+@Component
+public class RecommendationCandidateEngine {
+
+    // liczba profili, poniżej której zadanie nie jest dalej dzielone
+    private static final int SPLIT_THRESHOLD = 256;
+
+    private final int topK;
+    private final int maxAgeGapDays;
+    private final float ageWeight;
+    private final float contentWeight;
+    private final int parallelism;
+
+    public RecommendationCandidateEngine(
+            @Value("${app.recommendations.engine.top-k:10}") int topK,
+            @Value("${app.recommendations.engine.max-age-gap-years:10}") int maxAgeGapYears,
+            @Value("${app.recommendations.engine.age-weight:0.4}") float ageWeight,
+            @Value("${app.recommendations.engine.content-weight:0.6}") float contentWeight,
+            @Value("${app.recommendations.engine.parallelism:0}") int parallelism
+    ) {
+        this.topK = topK;
+        this.maxAgeGapDays = maxAgeGapYears * 365;
+        this.ageWeight = ageWeight;
+        this.contentWeight = contentWeight;
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Wyznacza nowe pary do rekomendacji.
+     *
+     * @param features      cechy profili
+     * @param existingPairs posortowane klucze par ({@link MatchingFeatures#pairKey}), które już są rekomendacjami
+     * @return posortowane, unikalne klucze nowych par
+     */
+    long[] generate(MatchingFeatures features, long[] existingPairs) {
+        int size = features.size();
+        AgeGroups groups = new AgeGroups(features);
+        int[] candidates = new int[size * topK];
+        int[] counts = new int[size];
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.invoke(new ScoreTask(features, groups, existingPairs, candidates, counts, 0, size));
+        } finally {
+            pool.shutdown();
+        }
+
+        int total = 0;
+        for (int count : counts) {
+            total += count;
+        }
+        long[] pairs = new long[total];
+        int position = 0;
+        for (int i = 0; i < size; i++) {
+            for (int c = 0; c < counts[i]; c++) {
+                pairs[position++] = MatchingFeatures.pairKey(i, candidates[i * topK + c]);
+            }
+        }
+        Arrays.sort(pairs);
+        return unique(pairs);
+    }
+
+    private final class ScoreTask extends RecursiveAction {
+
+        private final MatchingFeatures features;
+        private final AgeGroups groups;
+        private final long[] existingPairs;
+        private final int[] candidates;
+        private final int[] counts;
+        private final int from;
+        private final int to;
+
+        ScoreTask(MatchingFeatures features, AgeGroups groups, long[] existingPairs,
+                  int[] candidates, int[] counts, int from, int to) {
+            this.features = features;
+            this.groups = groups;
+            this.existingPairs = existingPairs;
+            this.candidates = candidates;
+            this.counts = counts;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > SPLIT_THRESHOLD) {
+                int middle = (from + to) >>> 1;
+                invokeAll(
+                        new ScoreTask(features, groups, existingPairs, candidates, counts, from, middle),
+                        new ScoreTask(features, groups, existingPairs, candidates, counts, middle, to)
+                );
+                return;
+            }
+
+            TopKHeap heap = new TopKHeap(topK);
+            for (int i = from; i < to; i++) {
+                heap.clear();
+                scoreProfile(i, heap);
+                for (int c = 0; c < heap.size(); c++) {
+                    candidates[i * topK + c] = heap.candidate(c);
+                }
+                counts[i] = heap.size();
+            }
+        }
+
+        private void scoreProfile(int i, TopKHeap heap) {
+            int birthDay = features.birthDay(i);
+            for (int gender = 0; gender < groups.members.length; gender++) {
+                if (gender == features.gender(i)) {
+                    continue;
+                }
+                int[] members = groups.members[gender];
+                int[] days = groups.birthDays[gender];
+                int start = lowerBound(days, birthDay - maxAgeGapDays);
+                int end = lowerBound(days, birthDay + maxAgeGapDays + 1);
+
+                for (int p = start; p < end; p++) {
+                    int j = members[p];
+                    float ageScore = 1f - (float) Math.abs(days[p] - birthDay) / maxAgeGapDays;
+                    float score = ageWeight * ageScore + contentWeight * features.contentSimilarity(i, j);
+                    // istniejące pary sprawdzane tylko dla kandydatów, którzy weszliby do kopca
+                    if (heap.accepts(score)
+                            && Arrays.binarySearch(existingPairs, MatchingFeatures.pairKey(i, j)) < 0) {
+                        heap.offer(j, score);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Indeksy profili pogrupowane po płci i posortowane po dacie urodzenia.
+     */
+    private static final class AgeGroups {
+
+        private final int[][] members;
+        private final int[][] birthDays;
+
+        AgeGroups(MatchingFeatures features) {
+            int genders = 0;
+            for (int i = 0; i < features.size(); i++) {
+                genders = Math.max(genders, features.gender(i) + 1);
+            }
+            int[] sizes = new int[genders];
+            for (int i = 0; i < features.size(); i++) {
+                sizes[features.gender(i)]++;
+            }
+
+            // sortowanie po (dzień urodzenia, indeks) upakowanych w jednym long
+            long[][] keys = new long[genders][];
+            for (int g = 0; g < genders; g++) {
+                keys[g] = new long[sizes[g]];
+                sizes[g] = 0;
+            }
+            for (int i = 0; i < features.size(); i++) {
+                int g = features.gender(i);
+                keys[g][sizes[g]++] = ((long) features.birthDay(i) << 32) | i;
+            }
+
+            members = new int[genders][];
+            birthDays = new int[genders][];
+            for (int g = 0; g < genders; g++) {
+                Arrays.sort(keys[g]);
+                members[g] = new int[keys[g].length];
+                birthDays[g] = new int[keys[g].length];
+                for (int p = 0; p < keys[g].length; p++) {
+                    members[g][p] = (int) keys[g][p];
+                    birthDays[g][p] = (int) (keys[g][p] >> 32);
+                }
+            }
+        }
+    }
+
+    private static int lowerBound(int[] values, int key) {
+        int low = 0;
+        int high = values.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (values[middle] < key) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static long[] unique(long[] sorted) {
+        if (sorted.length == 0) {
+            return sorted;
+        }
+        int size = 1;
+        for (int i = 1; i < sorted.length; i++) {
+            if (sorted[i] != sorted[size - 1]) {
+                sorted[size++] = sorted[i];
+            }
+        }
+        return Arrays.copyOf(sorted, size);
+    }
+}
@@ -0,0 +1,141 @@
+package com.matchmaking.backend.service.recommendation;
+
+import com.matchmaking.backend.model.recommendation.RecommendationStatus;
+import com.matchmaking.backend.service.job.BackgroundJob;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Automatyczne generowanie rekomendacji: wczytuje cechy profili do pamięci, wyznacza pary
+ * w {@link RecommendationCandidateEngine} i zapisuje je wsadowo przez JDBC
+ * (encja ma ID typu IDENTITY, więc Hibernate nie batchuje takich INSERT-ów).
+ * <p>
+ * Brane są pod uwagę tylko profile z podaną płcią i datą urodzenia. Pary, które są już rekomendacjami,
+ * są pomijane. Rekomendacje systemowe nie mają autora ({@code created_by} = NULL).
+ */
+@Slf4j
+@Component
+public class RecommendationGenerationJob {
+
+    private static final String PROFILES_SQL =
+            "SELECT id, gender, date_of_birth FROM user_profiles " +
+                    "WHERE gender IS NOT NULL AND date_of_birth IS NOT NULL ORDER BY id";
+
+    private static final String CONTENTS_SQL =
+            "SELECT user_profile_id, content FROM user_profile_section_contents WHERE content <> ''";
+
+    private static final String EXISTING_PAIRS_SQL =
+            "SELECT first_profile_id, second_profile_id FROM user_recommendations";
+
+    private static final String INSERT_SQL =
+            "INSERT INTO user_recommendations (first_profile_id, second_profile_id, status, created_at) " +
+                    "VALUES (?, ?, ?, ?) ON CONFLICT (first_profile_id, second_profile_id) DO NOTHING";
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final RecommendationCandidateEngine engine;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @Value("${app.recommendations.engine.batch-size:1000}")
+    private int batchSize;
+
+    public RecommendationGenerationJob(JdbcTemplate jdbcTemplate, RecommendationCandidateEngine engine) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.engine = engine;
+    }
+
+    @Async
+    public void run(BackgroundJob job) {
+        if (!running.compareAndSet(false, true)) {
+            job.fail("Generowanie rekomendacji już trwa");
+            return;
+        }
+        try {
+            long started = System.currentTimeMillis();
+            MatchingFeatures features = loadFeatures();
+            long[] pairs = engine.generate(features, loadExistingPairs(features));
+            job.setTotal(pairs.length);
+
+            insertRecommendations(features, pairs, job);
+            job.complete();
+            log.info("Wygenerowano {} rekomendacji dla {} profili w {} ms",
+                    pairs.length, features.size(), System.currentTimeMillis() - started);
+        } catch (RuntimeException e) {
+            log.error("Generowanie rekomendacji nie powiodło się", e);
+            job.fail(e.getMessage());
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private MatchingFeatures loadFeatures() {
+        MatchingFeatures features = new MatchingFeatures(INITIAL_CAPACITY);
+        jdbcTemplate.query(PROFILES_SQL, rs -> {
+            features.addProfile(
+                    rs.getLong("id"),
+                    rs.getInt("gender"),
+                    (int) rs.getDate("date_of_birth").toLocalDate().toEpochDay()
+            );
+        });
+        jdbcTemplate.query(CONTENTS_SQL, rs -> {
+            features.addContent(rs.getLong("user_profile_id"), rs.getString("content"));
+        });
+        return features;
+    }
+
+    /**
+     * Klucze par profili, które już są rekomendacjami (tylko pary profili objętych generowaniem).
+     */
+    private long[] loadExistingPairs(MatchingFeatures features) {
+        long[] pairs = jdbcTemplate.query(EXISTING_PAIRS_SQL, (ResultSetExtractor<long[]>) rs -> {
+            long[] keys = new long[INITIAL_CAPACITY];
+            int size = 0;
+            while (rs.next()) {
+                int first = features.indexOf(rs.getLong("first_profile_id"));
+                int second = features.indexOf(rs.getLong("second_profile_id"));
+                if (first >= 0 && second >= 0) {
+                    if (size == keys.length) {
+                        keys = Arrays.copyOf(keys, size * 2);
+                    }
+                    keys[size++] = MatchingFeatures.pairKey(first, second);
+                }
+            }
+            return Arrays.copyOf(keys, size);
+        });
+        Arrays.sort(pairs);
+        return pairs;
+    }
+
+    // profile są posortowane po ID, więc para (niższy indeks, wyższy indeks) jest od razu kanoniczna
+    private void insertRecommendations(MatchingFeatures features, long[] pairs, BackgroundJob job) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        String status = RecommendationStatus.NEW.name();
+        List<Object[]> batch = new ArrayList<>(batchSize);
+
+        for (int i = 0; i < pairs.length; i++) {
+            batch.add(new Object[]{
+                    features.profileId((int) (pairs[i] >>> 32)),
+                    features.profileId((int) pairs[i]),
+                    status,
+                    now
+            });
+            if (batch.size() == batchSize || i == pairs.length - 1) {
+                jdbcTemplate.batchUpdate(INSERT_SQL, batch);
+                batch.clear();
+                job.setProcessed(i + 1);
+            }
+        }
+    }
+}
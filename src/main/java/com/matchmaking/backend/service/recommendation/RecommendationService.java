@@ -1,5 +1,6 @@
 package com.matchmaking.backend.service.recommendation;
 
+import com.matchmaking.backend.model.job.BackgroundJobDTO;
 import com.matchmaking.backend.model.profile.UserProfile;
 import com.matchmaking.backend.model.notification.NotificationType;
 import com.matchmaking.backend.model.recommendation.RecommendationStatus;
@@ -9,6 +10,9 @@ import com.matchmaking.backend.repository.NotificationRepository;
 import com.matchmaking.backend.repository.UserRecommendationRepository;
 import com.matchmaking.backend.service.notification.NotificationService;
 import com.matchmaking.backend.service.UserService;
+import com.matchmaking.backend.service.image.AvatarResolver;
+import com.matchmaking.backend.service.job.BackgroundJob;
+import com.matchmaking.backend.service.job.BackgroundJobRegistry;
 import com.matchmaking.backend.service.profile.UserProfileService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
@@ -17,7 +21,9 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -28,60 +34,106 @@ public class RecommendationService {
     private final UserProfileService userProfileService;
     private final NotificationService notificationService;
     private final NotificationRepository notificationRepository;
+    private final AvatarResolver avatarResolver;
+    private final RecommendationGenerationJob generationJob;
+    private final BackgroundJobRegistry jobRegistry;
 
     @Transactional
     public UserRecommendation createRecommendation(Long firstProfileId, Long secondProfileId) {
         UserProfile firstProfile = userProfileService.getProfileEntityById(firstProfileId);
         UserProfile secondProfile = userProfileService.getProfileEntityById(secondProfileId);
 
-        // Sprawdź, czy rekomendacja już istnieje
-        Optional<UserRecommendation> existingRecommendation =
-                recommendationRepository.findByProfiles(firstProfile, secondProfile);
+        // Para w postaci kanonicznej; INSERT ... ON CONFLICT - bez duplikatów przy równoległych wywołaniach
+        Long firstId = Math.min(firstProfile.getId(), secondProfile.getId());
+        Long secondId = Math.max(firstProfile.getId(), secondProfile.getId());
 
+        Optional<UserRecommendation> existingRecommendation = recommendationRepository.findByPair(firstId, secondId);
         if (existingRecommendation.isPresent()) {
             return existingRecommendation.get();
         }
 
-        // Utwórz nową rekomendację
-        UserRecommendation recommendation = UserRecommendation.builder()
-                .firstProfile(firstProfile)
-                .secondProfile(secondProfile)
-                .status(RecommendationStatus.NEW)
-                .createdBy(userService.getCurrentUser())
-                .build();
+        int created = recommendationRepository.insertIfAbsent(
+                firstId,
+                secondId,
+                LocalDateTime.now(),
+                userService.getCurrentUser().getId()
+        );
+        UserRecommendation recommendation = recommendationRepository.findByPair(firstId, secondId)
+                .orElseThrow(() -> new IllegalStateException("Nie udało się utworzyć rekomendacji"));
 
-        recommendation = recommendationRepository.save(recommendation);
+        // Równoległe wywołanie utworzyło rekomendację pierwsze - powiadomienia już wysłało
+        if (created == 0) {
+            return recommendation;
+        }
 
         // Utwórz powiadomienia dla obu użytkowników
-        notificationService.createNotification(
-                firstProfile.getUser(),
+        notificationService.publishNotification(
+                firstProfile.getUser().getId(),
                 NotificationType.NEW_RECOMMENDATION,
                 "Administrator polecił Ci nowy profil: " + secondProfile.getFirstName(),
-                recommendation.getId()
+                recommendation.getId(),
+                secondProfile.getId()
         );
 
-        notificationService.createNotification(
-                secondProfile.getUser(),
+        notificationService.publishNotification(
+                secondProfile.getUser().getId(),
                 NotificationType.NEW_RECOMMENDATION,
                 "Administrator polecił Ci nowy profil: " + firstProfile.getFirstName(),
-                recommendation.getId()
+                recommendation.getId(),
+                firstProfile.getId()
         );
 
         return recommendation;
     }
 
+    /**
+     * Sprowadza rekomendacje do par kanonicznych (firstProfile.id < secondProfile.id): usuwa duplikaty
+     * tej samej pary (zostaje najstarsza) i zakłada indeks unikalny na parę.
+     * Wywoływane przed uruchomieniem serwera WWW (zob. {@code PairIndexInitializer}).
+     */
+    @Transactional
+    public void canonicalizeRecommendationPairs() {
+        if (recommendationRepository.existsPairIndex() && !recommendationRepository.existsNonCanonicalPair()) {
+            return;
+        }
+
+        recommendationRepository.repointDuplicateNotifications();
+        recommendationRepository.deleteDuplicates();
+        recommendationRepository.swapNonCanonicalPairs();
+        recommendationRepository.createPairIndex();
+    }
+
+    /**
+     * Uruchamia w tle automatyczne generowanie rekomendacji dla wszystkich profili.
+     *
+     * @return stan zadania (postęp: {@code GET /api/admin/jobs/{id}})
+     */
+    public BackgroundJobDTO generateRecommendations() {
+        BackgroundJob job = jobRegistry.create("RECOMMENDATION_GENERATION");
+        generationJob.run(job);
+        return job.toDTO();
+    }
+
     @Transactional(readOnly = true)
     public Page<UserRecommendationDTO> getUserRecommendations(
             Long profileId,
             int page,
             int size
     ) {
-        UserProfile profile = userProfileService.getProfileEntityById(profileId);
+        // weryfikacja istnienia profilu
+        userProfileService.getProfileEntityById(profileId);
         Pageable pageable = Pageable.ofSize(size).withPage(page);
 
-        Page<UserRecommendation> recommendations = recommendationRepository.findAllByProfile(profile, pageable);
+        Page<UserRecommendationDTO> recommendations = recommendationRepository.findPageByProfileId(profileId, pageable);
+
+        Map<Long, String> avatars = avatarResolver.resolve(recommendations.getContent().stream()
+                .map(UserRecommendationDTO::getRecommendedProfileId)
+                .collect(Collectors.toSet()));
 
-        return recommendations.map(recommendation -> mapToDto(recommendation, profileId));
+        recommendations.forEach(dto -> dto.setRecommendedProfilePhotoUrl(
+                avatars.getOrDefault(dto.getRecommendedProfileId(), AvatarResolver.DEFAULT_AVATAR_URL)
+        ));
+        return recommendations;
     }
 
     @Transactional
@@ -98,32 +150,6 @@ public class RecommendationService {
         return recommendationRepository.save(recommendation);
     }
 
-    private UserRecommendationDTO mapToDto(UserRecommendation recommendation, Long profileId) {
-        UserRecommendationDTO dto = new UserRecommendationDTO();
-
-        // Mapowanie podstawowych pól
-        dto.setId(recommendation.getId());
-        dto.setStatus(recommendation.getStatus());
-        dto.setCreatedAt(recommendation.getCreatedAt());
-        dto.setViewedAt(recommendation.getViewedAt());
-
-        dto.setCreatedById(recommendation.getCreatedBy().getId());
-
-        // Określenie polecanego profilu
-        UserProfile recommendedProfile;
-        if (recommendation.getFirstProfile().getId().equals(profileId)) {
-            recommendedProfile = recommendation.getSecondProfile();
-        } else {
-            recommendedProfile = recommendation.getFirstProfile();
-        }
-
-        // Ustawienie pól związanych z polecanym profilem
-        dto.setRecommendedProfileId(recommendedProfile.getId());
-        dto.setRecommendedProfileName(recommendedProfile.getFirstName() + " " + recommendedProfile.getLastName());
-
-        return dto;
-    }
-
     public void deleteRecommendation(
             Long recommendationId
     ) {
@@ -0,0 +1,86 @@
+package com.matchmaking.backend.service.recommendation;
+
+/**
+ * Ograniczony kopiec minimalny: przechowuje {@code k} kandydatów o najwyższym wyniku.
+ */
+final class TopKHeap {
+
+    private final int[] candidates;
+    private final float[] scores;
+    private int size;
+
+    TopKHeap(int k) {
+        this.candidates = new int[k];
+        this.scores = new float[k];
+    }
+
+    void clear() {
+        size = 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Czy kandydat o takim wyniku trafiłby do kopca.
+     */
+    boolean accepts(float score) {
+        return size < candidates.length || score > scores[0];
+    }
+
+    void offer(int candidate, float score) {
+        if (size < candidates.length) {
+            candidates[size] = candidate;
+            scores[size] = score;
+            siftUp(size++);
+        } else if (score > scores[0]) {
+            candidates[0] = candidate;
+            scores[0] = score;
+            siftDown(0);
+        }
+    }
+
+    int candidate(int position) {
+        return candidates[position];
+    }
+
+    private void siftUp(int position) {
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            if (scores[parent] <= scores[position]) {
+                return;
+            }
+            swap(parent, position);
+            position = parent;
+        }
+    }
+
+    private void siftDown(int position) {
+        while (true) {
+            int smallest = position;
+            int left = 2 * position + 1;
+            int right = left + 1;
+            if (left < size && scores[left] < scores[smallest]) {
+                smallest = left;
+            }
+            if (right < size && scores[right] < scores[smallest]) {
+                smallest = right;
+            }
+            if (smallest == position) {
+                return;
+            }
+            swap(smallest, position);
+            position = smallest;
+        }
+    }
+
+    private void swap(int i, int j) {
+        int candidate = candidates[i];
+        candidates[i] = candidates[j];
+        candidates[j] = candidate;
+        float score = scores[i];
+        scores[i] = scores[j];
+        scores[j] = score;
+    }
+}
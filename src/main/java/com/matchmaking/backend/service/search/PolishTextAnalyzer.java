@@ -0,0 +1,95 @@
+package com.matchmaking.backend.service.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Analiza tekstu po polsku dla wyszukiwania: podział na słowa, małe litery, zdjęcie polskich znaków
+ * diakrytycznych, pominięcie słów nieznaczących i lekkie obcięcie końcówek fleksyjnych
+ * (zapytanie "zeglarstwo" znajdzie "żeglarstwem").
+ * <p>
+ * Znaki diakrytyczne zdejmowane są przed obcięciem końcówek, a końcówki zapisane są bez nich -
+ * dzięki temu forma pisana z polskimi znakami i bez nich daje ten sam rdzeń ("miłością" i "miloscia").
+ */
+public final class PolishTextAnalyzer {
+
+    private static final Locale POLISH = new Locale("pl", "PL");
+
+    private static final int MIN_TOKEN_LENGTH = 2;
+
+    // rdzeń nie jest skracany poniżej tej długości
+    private static final int MIN_STEM_LENGTH = 4;
+
+    // bez polskich znaków - porównywane ze słowem po zdjęciu diakrytyków ("sie" pominięte jak "się")
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "aby", "ale", "bo", "by", "byc", "co", "czy", "dla", "do", "gdy", "i", "ich", "im", "ja",
+            "jak", "jako", "je", "jego", "jej", "jest", "jestem", "juz", "lub", "ma", "mam", "mi", "mnie",
+            "moj", "moja", "moje", "na", "nad", "nie", "o", "od", "oraz", "po", "pod", "przez", "przy",
+            "sie", "sa", "ta", "tak", "te", "to", "ten", "tez", "tu", "w", "we", "z", "za", "ze"
+    );
+
+    // bez polskich znaków, od najdłuższych - obcinana jest pierwsza pasująca końcówka
+    private static final String[] SUFFIXES = {
+            "owiach", "osciach", "oscia", "osci", "owie", "ami", "ach", "ego", "emu", "ych", "ymi",
+            "imi", "owi", "om", "ow", "em", "ej", "ym", "im", "ie", "ia", "a", "e", "i", "o", "u", "y"
+    };
+
+    private PolishTextAnalyzer() {
+    }
+
+    /**
+     * Zwraca znormalizowane słowa tekstu (z powtórzeniami, w kolejności występowania).
+     */
+    public static List<String> analyze(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return terms;
+        }
+        for (String token : text.toLowerCase(POLISH).split("[^\\p{L}\\p{N}]+")) {
+            if (token.length() < MIN_TOKEN_LENGTH) {
+                continue;
+            }
+            String folded = foldDiacritics(token);
+            if (!STOP_WORDS.contains(folded)) {
+                terms.add(stem(folded));
+            }
+        }
+        return terms;
+    }
+
+    private static String stem(String token) {
+        for (String suffix : SUFFIXES) {
+            if (token.endsWith(suffix) && token.length() - suffix.length() >= MIN_STEM_LENGTH) {
+                return token.substring(0, token.length() - suffix.length());
+            }
+        }
+        return token;
+    }
+
+    private static String foldDiacritics(String token) {
+        StringBuilder folded = null;
+        for (int i = 0; i < token.length(); i++) {
+            char c = token.charAt(i);
+            char replacement = switch (c) {
+                case 'ą' -> 'a';
+                case 'ć' -> 'c';
+                case 'ę' -> 'e';
+                case 'ł' -> 'l';
+                case 'ń' -> 'n';
+                case 'ó' -> 'o';
+                case 'ś' -> 's';
+                case 'ź', 'ż' -> 'z';
+                default -> c;
+            };
+            if (replacement != c && folded == null) {
+                folded = new StringBuilder(token.length()).append(token, 0, i);
+            }
+            if (folded != null) {
+                folded.append(replacement);
+            }
+        }
+        return folded != null ? folded.toString() : token;
+    }
+}
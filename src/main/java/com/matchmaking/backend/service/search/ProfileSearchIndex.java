@@ -0,0 +1,279 @@
+package com.matchmaking.backend.service.search;
+
+import com.matchmaking.backend.repository.UserProfileRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Odwrócony indeks (w pamięci instancji) nad bio i treściami sekcji profili, z rankingiem BM25.
+ * <p>
+ * Dokumentem jest profil: bio i wszystkie treści jego sekcji przetworzone przez {@link PolishTextAnalyzer}.
+ * Indeks budowany jest w tle po starcie, a potem aktualizowany przyrostowo - po commicie zmiany
+ * profil jest ponownie czytany z bazy i jego wpisy są podmieniane. Zmiany zgłoszone w trakcie
+ * budowania są stosowane po jego zakończeniu.
+ */
+@Slf4j
+@Service
+public class ProfileSearchIndex {
+
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+
+    // profile czytane z bazy porcjami po zakresach ID
+    private static final long BUILD_CHUNK_SIZE = 1000;
+
+    private static final String PROFILE_TEXT_SQL =
+            "SELECT p.id, p.bio, c.content FROM user_profiles p " +
+                    "LEFT JOIN user_profile_section_contents c ON c.user_profile_id = p.id AND c.content <> '' " +
+                    "WHERE p.id > ? AND p.id <= ? ORDER BY p.id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final UserProfileRepository userProfileRepository;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<String, Postings> postings = new HashMap<>();
+    private final Map<Long, Document> documents = new HashMap<>();
+    private long totalLength;
+
+    private final Set<Long> pendingProfileIds = new HashSet<>();
+    private volatile boolean ready;
+
+    public ProfileSearchIndex(JdbcTemplate jdbcTemplate, UserProfileRepository userProfileRepository) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.userProfileRepository = userProfileRepository;
+    }
+
+    /**
+     * Buduje indeks dla wszystkich profili.
+     */
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        long started = System.currentTimeMillis();
+        long maxProfileId = userProfileRepository.findMaxId();
+        for (long fromId = 0; fromId < maxProfileId; fromId += BUILD_CHUNK_SIZE) {
+            Map<Long, List<String>> chunk = loadTerms(fromId, Math.min(fromId + BUILD_CHUNK_SIZE, maxProfileId));
+            lock.writeLock().lock();
+            try {
+                chunk.forEach(this::replaceDocument);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        Set<Long> pending;
+        synchronized (pendingProfileIds) {
+            ready = true;
+            pending = new HashSet<>(pendingProfileIds);
+            pendingProfileIds.clear();
+        }
+        pending.forEach(this::reindex);
+
+        log.info("Zbudowano indeks wyszukiwania profili: {} profili, {} słów w {} ms",
+                documents.size(), postings.size(), System.currentTimeMillis() - started);
+    }
+
+    /**
+     * Zgłasza zmianę tekstu profilu; wewnątrz transakcji indeks jest aktualizowany dopiero po commicie.
+     */
+    public void profileChanged(Long profileId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    reindex(profileId);
+                }
+            });
+        } else {
+            reindex(profileId);
+        }
+    }
+
+    /**
+     * Wyszukuje profile pasujące do zapytania.
+     *
+     * @return ID profili z wynikiem BM25, od najlepszego
+     */
+    public Map<Long, Float> search(String query, int limit) {
+        List<String> terms = PolishTextAnalyzer.analyze(query);
+        Map<Long, Float> result = new LinkedHashMap<>();
+        if (terms.isEmpty() || limit <= 0) {
+            return result;
+        }
+
+        lock.readLock().lock();
+        try {
+            int documentCount = documents.size();
+            if (documentCount == 0) {
+                return result;
+            }
+            float averageLength = (float) totalLength / documentCount;
+
+            Map<Document, Float> scores = new HashMap<>();
+            for (String term : new HashSet<>(terms)) {
+                Postings list = postings.get(term);
+                if (list == null) {
+                    continue;
+                }
+                double idf = Math.log(1 + (documentCount - list.size + 0.5) / (list.size + 0.5));
+                for (int i = 0; i < list.size; i++) {
+                    Document document = list.documents[i];
+                    int frequency = list.frequencies[i];
+                    float norm = K1 * (1 - B + B * document.length / averageLength);
+                    float score = (float) (idf * frequency * (K1 + 1) / (frequency + norm));
+                    scores.merge(document, score, Float::sum);
+                }
+            }
+
+            PriorityQueue<Map.Entry<Document, Float>> top = new PriorityQueue<>(Map.Entry.comparingByValue());
+            for (Map.Entry<Document, Float> entry : scores.entrySet()) {
+                top.offer(entry);
+                if (top.size() > limit) {
+                    top.poll();
+                }
+            }
+            List<Map.Entry<Document, Float>> ranked = new ArrayList<>(top);
+            ranked.sort(Map.Entry.<Document, Float>comparingByValue().reversed());
+            for (Map.Entry<Document, Float> entry : ranked) {
+                result.put(entry.getKey().profileId, entry.getValue());
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void reindex(Long profileId) {
+        synchronized (pendingProfileIds) {
+            if (!ready) {
+                pendingProfileIds.add(profileId);
+                return;
+            }
+        }
+
+        List<String> terms = loadTerms(profileId - 1, profileId).get(profileId);
+        lock.writeLock().lock();
+        try {
+            if (terms == null) {
+                removeDocument(profileId);
+            } else {
+                replaceDocument(profileId, terms);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Słowa profili o ID z zakresu (fromId, toId].
+     */
+    private Map<Long, List<String>> loadTerms(long fromId, long toId) {
+        Map<Long, List<String>> terms = new HashMap<>();
+        jdbcTemplate.query(PROFILE_TEXT_SQL, rs -> {
+            long profileId = rs.getLong("id");
+            List<String> profileTerms = terms.get(profileId);
+            if (profileTerms == null) {
+                // bio powtarza się w każdym wierszu profilu - brane tylko z pierwszego
+                profileTerms = PolishTextAnalyzer.analyze(rs.getString("bio"));
+                terms.put(profileId, profileTerms);
+            }
+            profileTerms.addAll(PolishTextAnalyzer.analyze(rs.getString("content")));
+        }, fromId, toId);
+        return terms;
+    }
+
+    private void replaceDocument(Long profileId, List<String> terms) {
+        removeDocument(profileId);
+
+        Map<String, Integer> frequencies = new HashMap<>();
+        for (String term : terms) {
+            frequencies.merge(term, 1, Integer::sum);
+        }
+
+        Document document = new Document(profileId, terms.size(), frequencies.keySet().toArray(new String[0]));
+        for (Map.Entry<String, Integer> entry : frequencies.entrySet()) {
+            postings.computeIfAbsent(entry.getKey(), term -> new Postings()).add(document, entry.getValue());
+        }
+        documents.put(profileId, document);
+        totalLength += document.length;
+    }
+
+    private void removeDocument(Long profileId) {
+        Document document = documents.remove(profileId);
+        if (document == null) {
+            return;
+        }
+        for (String term : document.terms) {
+            Postings list = postings.get(term);
+            if (list != null && list.remove(document) && list.size == 0) {
+                postings.remove(term);
+            }
+        }
+        totalLength -= document.length;
+    }
+
+    private static final class Document {
+
+        private final long profileId;
+        private final int length;
+        private final String[] terms;
+
+        Document(long profileId, int length, String[] terms) {
+            this.profileId = profileId;
+            this.length = length;
+            this.terms = terms;
+        }
+    }
+
+    /**
+     * Lista wystąpień słowa: dokumenty i liczba wystąpień w każdym z nich.
+     */
+    private static final class Postings {
+
+        private Document[] documents = new Document[4];
+        private int[] frequencies = new int[4];
+        private int size;
+
+        void add(Document document, int frequency) {
+            if (size == documents.length) {
+                documents = Arrays.copyOf(documents, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            documents[size] = document;
+            frequencies[size] = frequency;
+            size++;
+        }
+
+        // kolejność wpisów nie ma znaczenia - usuwany wpis zastępowany jest ostatnim
+        boolean remove(Document document) {
+            for (int i = 0; i < size; i++) {
+                if (documents[i] == document) {
+                    size--;
+                    documents[i] = documents[size];
+                    frequencies[i] = frequencies[size];
+                    documents[size] = null;
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
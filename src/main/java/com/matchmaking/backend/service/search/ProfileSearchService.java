@@ -0,0 +1,59 @@
+package com.matchmaking.backend.service.search;
+
+import com.matchmaking.backend.model.profile.UserProfile;
+import com.matchmaking.backend.model.search.ProfileSearchResultDTO;
+import com.matchmaking.backend.repository.UserProfileRepository;
+import com.matchmaking.backend.service.image.AvatarResolver;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+public class ProfileSearchService {
+
+    private static final int MAX_LIMIT = 100;
+
+    private final ProfileSearchIndex searchIndex;
+    private final UserProfileRepository userProfileRepository;
+    private final AvatarResolver avatarResolver;
+
+    /**
+     * Wyszukuje profile po treści bio i sekcji, w kolejności trafności (BM25)
+     *
+     * @param query zapytanie tekstowe
+     * @param limit maksymalna liczba wyników
+     */
+    @Transactional(readOnly = true)
+    public List<ProfileSearchResultDTO> searchProfiles(String query, int limit) {
+        Map<Long, Float> hits = searchIndex.search(query, Math.min(limit, MAX_LIMIT));
+        if (hits.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Map<Long, UserProfile> profiles = userProfileRepository.findAllById(hits.keySet()).stream()
+                .collect(Collectors.toMap(UserProfile::getId, Function.identity()));
+        Map<Long, String> avatars = avatarResolver.resolve(hits.keySet());
+
+        List<ProfileSearchResultDTO> result = new ArrayList<>();
+        hits.forEach((profileId, score) -> {
+            UserProfile profile = profiles.get(profileId);
+            if (profile != null) {
+                result.add(new ProfileSearchResultDTO(
+                        profileId,
+                        profile.getFirstName(),
+                        profile.getLastName(),
+                        avatars.getOrDefault(profileId, AvatarResolver.DEFAULT_AVATAR_URL),
+                        score
+                ));
+            }
+        });
+        return result;
+    }
+}
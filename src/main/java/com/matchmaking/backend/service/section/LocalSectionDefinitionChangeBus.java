@@ -0,0 +1,25 @@
+package com.matchmaking.backend.service.section;
+
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Kanał zmian definicji sekcji w obrębie jednej instancji aplikacji.
+ */
+@Component
+public class LocalSectionDefinitionChangeBus implements SectionDefinitionChangeBus {
+
+    private final List<Runnable> listeners = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish() {
+        listeners.forEach(Runnable::run);
+    }
+
+    @Override
+    public void subscribe(Runnable listener) {
+        listeners.add(listener);
+    }
+}
@@ -0,0 +1,50 @@
+package com.matchmaking.backend.service.section;
+
+import com.matchmaking.backend.repository.UserProfileRepository;
+import com.matchmaking.backend.repository.UserProfileSectionContentRepository;
+import com.matchmaking.backend.service.job.BackgroundJob;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Tworzy puste treści nowej sekcji dla istniejących profili - w tle, porcjami po zakresach ID profili.
+ * Każda porcja to jedno {@code INSERT ... SELECT ... WHERE NOT EXISTS} we własnej transakcji,
+ * więc zadanie jest idempotentne i można je bezpiecznie uruchomić ponownie.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SectionContentBackfillJob {
+
+    private final UserProfileRepository userProfileRepository;
+    private final UserProfileSectionContentRepository sectionContentRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.profile.sections.backfill-chunk-size:10000}")
+    private long chunkSize;
+
+    @Async
+    public void run(BackgroundJob job, Long definitionId) {
+        try {
+            long maxProfileId = userProfileRepository.findMaxId();
+            job.setTotal(maxProfileId);
+
+            for (long fromId = 0; fromId < maxProfileId; fromId += chunkSize) {
+                long from = fromId;
+                long to = Math.min(fromId + chunkSize, maxProfileId);
+                transactionTemplate.executeWithoutResult(status ->
+                        sectionContentRepository.insertEmptyContentForProfileRange(definitionId, from, to));
+                job.setProcessed(to);
+            }
+
+            job.complete();
+        } catch (RuntimeException e) {
+            log.error("Inicjalizacja sekcji {} nie powiodła się", definitionId, e);
+            job.fail(e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.matchmaking.backend.service.section;
+
+import com.matchmaking.backend.model.section.SectionDefinitionSnapshot;
+import com.matchmaking.backend.model.section.UserProfileSectionDefinition;
+import com.matchmaking.backend.repository.UserProfileSectionDefinitionRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Definicje sekcji profilu trzymane w pamięci jako wersjonowana, niezmienna migawka.
+ * <p>
+ * Odczyty (widok profilu, rejestracja, edycja sekcji) nie odpytują bazy o definicje.
+ * Migawka jest przeładowywana i podmieniana atomowo po zatwierdzeniu zmian w
+ * {@link UserProfileSectionAdminService} - na wszystkich instancjach przez {@link SectionDefinitionChangeBus}.
+ */
+@Service
+public class SectionDefinitionCache {
+
+    private final UserProfileSectionDefinitionRepository sectionDefinitionRepository;
+    private final SectionDefinitionChangeBus changeBus;
+    private final AtomicReference<SectionDefinitionSnapshot> snapshot = new AtomicReference<>();
+
+    public SectionDefinitionCache(
+            UserProfileSectionDefinitionRepository sectionDefinitionRepository,
+            SectionDefinitionChangeBus changeBus
+    ) {
+        this.sectionDefinitionRepository = sectionDefinitionRepository;
+        this.changeBus = changeBus;
+        changeBus.subscribe(this::reload);
+    }
+
+    /**
+     * Aktualna migawka definicji (ładowana przy pierwszym użyciu).
+     */
+    public SectionDefinitionSnapshot get() {
+        SectionDefinitionSnapshot current = snapshot.get();
+        return current != null ? current : reload();
+    }
+
+    /**
+     * Ogłasza zmianę definicji; wewnątrz transakcji dopiero po commicie,
+     * aby żadna instancja nie załadowała niezatwierdzonego stanu.
+     */
+    public void publishChange() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    changeBus.publish();
+                }
+            });
+        } else {
+            changeBus.publish();
+        }
+    }
+
+    /**
+     * Ładuje definicje z bazy i podmienia migawkę na nową wersję.
+     */
+    public synchronized SectionDefinitionSnapshot reload() {
+        List<UserProfileSectionDefinition> definitions = sectionDefinitionRepository.findAllByOrderByDisplayOrderAsc();
+
+        Map<Long, SectionDefinitionSnapshot.Definition> byId = new LinkedHashMap<>();
+        for (UserProfileSectionDefinition definition : definitions) {
+            byId.put(definition.getId(), new SectionDefinitionSnapshot.Definition(
+                    definition.getId(),
+                    definition.getName(),
+                    definition.getDisplayOrder(),
+                    definition.isRequired(),
+                    definition.isVisible()
+            ));
+        }
+
+        SectionDefinitionSnapshot previous = snapshot.get();
+        SectionDefinitionSnapshot next = new SectionDefinitionSnapshot(
+                previous != null ? previous.getVersion() + 1 : 1,
+                byId.values().stream().filter(SectionDefinitionSnapshot.Definition::isVisible).toList(),
+                Map.copyOf(byId)
+        );
+        snapshot.set(next);
+        return next;
+    }
+}
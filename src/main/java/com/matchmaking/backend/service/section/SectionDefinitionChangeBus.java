@@ -0,0 +1,15 @@
+package com.matchmaking.backend.service.section;
+
+/**
+ * Lekki kanał pub/sub powiadamiający instancje aplikacji o zmianie definicji sekcji.
+ * <p>
+ * Domyślna implementacja ({@link LocalSectionDefinitionChangeBus}) działa w obrębie jednej instancji.
+ * Przy wielu instancjach wystarczy dostarczyć bean oparty np. o Redis pub/sub lub PostgreSQL
+ * LISTEN/NOTIFY (oznaczony jako {@code @Primary}), który wywoła subskrybentów na każdym węźle.
+ */
+public interface SectionDefinitionChangeBus {
+
+    void publish();
+
+    void subscribe(Runnable listener);
+}
@@ -19,6 +19,7 @@ public class UserProfileSectionAdminService {
 
     private final UserProfileSectionDefinitionRepository sectionDefinitionRepository;
     private final UserProfileSectionInitializerService sectionInitializerService;
+    private final SectionDefinitionCache definitionCache;
 
 
     /**
@@ -58,12 +59,16 @@ public class UserProfileSectionAdminService {
         UserProfileSectionDefinition saved = sectionDefinitionRepository.save(definition);
         reorderAllSections();
 
-        // Dodajemy pustą zawartość sekcji dla wszystkich użytkowników
+        // Dodajemy pustą zawartość sekcji dla wszystkich użytkowników - w tle, po commicie
+        String jobId = null;
         if (saved.isVisible()) {
-            sectionInitializerService.initializeSectionForAllUsers(saved);
+            jobId = sectionInitializerService.initializeSectionForAllUsers(saved);
         }
+        definitionCache.publishChange();
 
-        return mapToDTO(saved);
+        UserProfileSectionDefinitionDTO result = mapToDTO(saved);
+        result.setInitializationJobId(jobId);
+        return result;
     }
 
     /**
@@ -78,7 +83,9 @@ public class UserProfileSectionAdminService {
         definition.setVisible(dto.isVisible());
         definition.setDescription(dto.getDescription());
 
-        return mapToDTO(sectionDefinitionRepository.save(definition));
+        UserProfileSectionDefinition saved = sectionDefinitionRepository.save(definition);
+        definitionCache.publishChange();
+        return mapToDTO(saved);
     }
 
     /**
@@ -93,6 +100,7 @@ public class UserProfileSectionAdminService {
 
         sectionDefinitionRepository.deleteById(id);
         reorderAllSections();
+        definitionCache.publishChange();
     }
 
     /**
@@ -113,6 +121,7 @@ public class UserProfileSectionAdminService {
         }
 
         sectionDefinitionRepository.saveAll(sectionsMap.values());
+        definitionCache.publishChange();
     }
 
     /**
@@ -141,6 +150,7 @@ public class UserProfileSectionAdminService {
 
         swapDisplayOrder(current, adjacent);
         sectionDefinitionRepository.saveAll(List.of(current, adjacent));
+        definitionCache.publishChange();
 
         return mapToDTO(current);
     }
@@ -173,6 +183,7 @@ public class UserProfileSectionAdminService {
         }
 
         sectionDefinitionRepository.saveAll(sections);
+        definitionCache.publishChange();
     }
 
     // Metody pomocnicze
@@ -1,43 +1,83 @@
 package com.matchmaking.backend.service.section;
 
-import com.matchmaking.backend.model.auth.User;
+import com.matchmaking.backend.model.AppConfig;
 import com.matchmaking.backend.model.profile.UserProfile;
 import com.matchmaking.backend.model.section.UserProfileSectionContent;
 import com.matchmaking.backend.model.section.UserProfileSectionDefinition;
+import com.matchmaking.backend.repository.AppConfigRepository;
 import com.matchmaking.backend.repository.UserProfileRepository;
 import com.matchmaking.backend.repository.UserProfileSectionContentRepository;
-import com.matchmaking.backend.repository.UserRepository;
+import com.matchmaking.backend.repository.UserProfileSectionDefinitionRepository;
+import com.matchmaking.backend.service.job.BackgroundJob;
+import com.matchmaking.backend.service.job.BackgroundJobRegistry;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
+/**
+ * Zarządza wierszami treści sekcji profili.
+ * <p>
+ * W trybie rzadkim ({@code app.profile.sections.sparse=true}, domyślnie) treści nie są tworzone z góry:
+ * brak wiersza oznacza pustą treść, a wiersz powstaje przy pierwszym zapisie niepustej treści.
+ */
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class UserProfileSectionInitializerService {
 
+    private static final int PURGE_CHUNK_SIZE = 5000;
+    // znacznik w app_config - migracja wykonana, kolejne starty pomijają skan tabeli treści
+    private static final String PURGE_DONE_KEY = "migration.section-contents.empty-purged";
+
     private final UserProfileSectionContentRepository sectionContentRepository;
-    private final UserRepository userRepository;
     private final UserProfileRepository userProfileRepository;
+    private final UserProfileSectionDefinitionRepository sectionDefinitionRepository;
+    private final SectionContentBackfillJob sectionContentBackfillJob;
+    private final BackgroundJobRegistry jobRegistry;
+    private final TransactionTemplate transactionTemplate;
+    private final AppConfigRepository appConfigRepository;
+
+    @Value("${app.profile.sections.sparse:true}")
+    private boolean sparse;
+
+    /**
+     * Czy treści sekcji są przechowywane rzadko (tylko niepuste).
+     */
+    public boolean isSparse() {
+        return sparse;
+    }
 
     /**
      * Inicjalizuje sekcje profilu dla nowego użytkownika
+     *
+     * @param definitionIds ID widocznych definicji sekcji (z {@link SectionDefinitionCache})
      */
     @Transactional
-    public void initializeProfileSections(UserProfile userProfile, List<UserProfileSectionDefinition> definitions) {
+    public void initializeProfileSections(UserProfile userProfile, List<Long> definitionIds) {
+        if (sparse) {
+            return;
+        }
+
         List<UserProfileSectionContent> contents = new ArrayList<>();
 
-        for (UserProfileSectionDefinition definition : definitions) {
-            if (definition.isVisible()) {
-                UserProfileSectionContent content = new UserProfileSectionContent();
-                content.setUserProfile(userProfile);
-                content.setSectionDefinition(definition);
-                content.setContent(""); // Pusta zawartość
-                contents.add(content);
-            }
+        for (Long definitionId : definitionIds) {
+            UserProfileSectionContent content = new UserProfileSectionContent();
+            content.setUserProfile(userProfile);
+            // referencja - bez zapytania o definicję
+            content.setSectionDefinition(sectionDefinitionRepository.getReferenceById(definitionId));
+            content.setContent(""); // Pusta zawartość
+            contents.add(content);
         }
 
         if (!contents.isEmpty()) {
@@ -46,31 +86,64 @@ public class UserProfileSectionInitializerService {
     }
 
     /**
-     * Inicjalizuje pustą zawartość nowej sekcji dla wszystkich istniejących profili
+     * Zleca inicjalizację pustej zawartości nowej sekcji dla wszystkich istniejących profili.
+     * Zadanie startuje w tle po commicie bieżącej transakcji (definicja musi już istnieć w bazie).
+     *
+     * @return ID zadania (status: {@code GET /api/admin/jobs/{id}}) lub {@code null} w trybie rzadkim
      */
-    @Transactional
-    public void initializeSectionForAllUsers(UserProfileSectionDefinition definition) {
-        List<User> allUsers = userRepository.findAll();
-        List<UserProfileSectionContent> contents = new ArrayList<>();
+    public String initializeSectionForAllUsers(UserProfileSectionDefinition definition) {
+        if (sparse) {
+            return null;
+        }
 
-        for (User user : allUsers) {
-            if (user.getProfile() != null) {
-                Optional<UserProfileSectionContent> existingContent =
-                        sectionContentRepository.findByUserProfileAndSectionDefinition(user.getProfile(), definition);
-
-                if (existingContent.isEmpty()) {
-                    UserProfileSectionContent content = new UserProfileSectionContent();
-                    content.setUserProfile(user.getProfile());
-                    content.setSectionDefinition(definition);
-                    content.setContent("");
-                    contents.add(content);
+        BackgroundJob job = jobRegistry.create("SECTION_INITIALIZATION");
+        Long definitionId = definition.getId();
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    sectionContentBackfillJob.run(job, definitionId);
                 }
-            }
+            });
+        } else {
+            sectionContentBackfillJob.run(job, definitionId);
         }
 
-        if (!contents.isEmpty()) {
-            sectionContentRepository.saveAll(contents);
+        return job.getId();
+    }
+
+    /**
+     * Migracja do trybu rzadkiego: usuwa utworzone wcześniej puste treści sekcji,
+     * porcjami, każda porcja w osobnej transakcji.
+     * <p>
+     * Wykonywana jednorazowo: po zakończeniu zapisuje znacznik w {@code app_config}, więc kolejne
+     * starty nie skanują tabeli treści. Ponowne uruchomienie - usunięcie wiersza {@value #PURGE_DONE_KEY}.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void purgeEmptyContents() {
+        if (!sparse || appConfigRepository.existsById(PURGE_DONE_KEY)) {
+            return;
         }
+
+        long purged = 0;
+        Integer deleted;
+        do {
+            deleted = transactionTemplate.execute(status ->
+                    sectionContentRepository.deleteEmptyContents(PURGE_CHUNK_SIZE));
+            purged += deleted != null ? deleted : 0;
+        } while (deleted != null && deleted == PURGE_CHUNK_SIZE);
+
+        if (purged > 0) {
+            log.info("Usunięto {} pustych treści sekcji profili", purged);
+        }
+
+        AppConfig marker = new AppConfig();
+        marker.setParamKey(PURGE_DONE_KEY);
+        marker.setParamValue("true");
+        marker.setDescription("Jednorazowe usunięcie pustych treści sekcji (tryb rzadki) zostało wykonane");
+        marker.setDataType("BOOLEAN");
+        appConfigRepository.save(marker);
     }
 
     /**
@@ -2,6 +2,7 @@ package com.matchmaking.backend.service.section;
 
 import com.matchmaking.backend.model.auth.User;
 import com.matchmaking.backend.model.profile.UserProfile;
+import com.matchmaking.backend.model.section.SectionDefinitionSnapshot;
 import com.matchmaking.backend.model.section.UserProfileSectionContent;
 import com.matchmaking.backend.model.section.UserProfileSectionContentRequestDTO;
 import com.matchmaking.backend.model.section.UserProfileSectionContentChangeDTO;
@@ -11,13 +12,16 @@ import com.matchmaking.backend.repository.UserProfileSectionContentRepository;
 import com.matchmaking.backend.repository.UserProfileSectionDefinitionRepository;
 import com.matchmaking.backend.service.UserService;
 import com.matchmaking.backend.service.profile.UserProfileContextService;
+import com.matchmaking.backend.service.search.ProfileSearchIndex;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
@@ -29,6 +33,9 @@ public class UserProfileSectionService {
     private final UserProfileSectionContentRepository sectionContentRepository;
     private final UserProfileContextService contextService;
     private final UserProfileRepository userProfileRepository;
+    private final SectionDefinitionCache definitionCache;
+    private final UserProfileSectionInitializerService sectionInitializerService;
+    private final ProfileSearchIndex searchIndex;
 
 
     /**
@@ -37,79 +44,25 @@ public class UserProfileSectionService {
     @Transactional(readOnly = true)
     public List<UserProfileSectionContentRequestDTO> getUserProfileSections() {
         User user = getCurrentUser();
-        UserProfile profile = user.getProfile();
-
-        // Pobierz wszystkie widoczne definicje sekcji
-        List<UserProfileSectionDefinition> definitions =
-                sectionDefinitionRepository.findAllByVisibleTrueOrderByDisplayOrderAsc();
-
-        // Pobierz istniejące treści sekcji użytkownika
-        List<UserProfileSectionContent> existingContents =
-                sectionContentRepository.findByUserProfile(profile);
-
-        // Przygotuj DTO dla każdej sekcji
-        List<UserProfileSectionContentRequestDTO> result = new ArrayList<>();
-
-        for (UserProfileSectionDefinition def : definitions) {
-            UserProfileSectionContentRequestDTO dto = new UserProfileSectionContentRequestDTO();
-            dto.setSectionId(def.getId()); // Używamy tylko istniejącego ID sekcji
-            dto.setSectionName(def.getName());
-            dto.setRequired(def.isRequired());
-
-            // Szukaj treści dla tej sekcji
-            Optional<UserProfileSectionContent> contentOpt = existingContents.stream()
-                    .filter(c -> c.getSectionDefinition().getId().equals(def.getId()))
-                    .findFirst();
-
-            dto.setContent(contentOpt.map(UserProfileSectionContent::getContent).orElse(""));
-
-            result.add(dto);
-        }
-
-        return result;
+        return loadProfileSections(user.getProfile().getId());
     }
 
     /**
      * Pobiera sekcję profilu użytkownika po ID profilu
      * @param userProfileId ID profilu użytkownika
      */
+    @Transactional(readOnly = true)
     public List<UserProfileSectionContentRequestDTO> getUserProfileSections(Long userProfileId) {
 
         if (!contextService.canView(userProfileId)) {
             throw new IllegalArgumentException("Nie masz uprawnień do wyświetlania tego profilu");
         }
 
-        UserProfile profile = userProfileRepository.findById(userProfileId)
-                .orElseThrow(() -> new IllegalArgumentException("Profil o podanym ID nie istnieje"));
-
-        // Pobierz wszystkie widoczne definicje sekcji
-        List<UserProfileSectionDefinition> definitions =
-                sectionDefinitionRepository.findAllByVisibleTrueOrderByDisplayOrderAsc();
-
-        // Pobierz istniejące treści sekcji użytkownika
-        List<UserProfileSectionContent> existingContents =
-                sectionContentRepository.findByUserProfile(profile);
-
-        // Przygotuj DTO dla każdej sekcji
-        List<UserProfileSectionContentRequestDTO> result = new ArrayList<>();
-
-        for (UserProfileSectionDefinition def : definitions) {
-            UserProfileSectionContentRequestDTO dto = new UserProfileSectionContentRequestDTO();
-            dto.setSectionId(def.getId()); // Używamy tylko istniejącego ID sekcji
-            dto.setSectionName(def.getName());
-            dto.setRequired(def.isRequired());
-
-            // Szukaj treści dla tej sekcji
-            Optional<UserProfileSectionContent> contentOpt = existingContents.stream()
-                    .filter(c -> c.getSectionDefinition().getId().equals(def.getId()))
-                    .findFirst();
-
-            dto.setContent(contentOpt.map(UserProfileSectionContent::getContent).orElse(""));
-
-            result.add(dto);
+        if (!userProfileRepository.existsById(userProfileId)) {
+            throw new IllegalArgumentException("Profil o podanym ID nie istnieje");
         }
 
-        return result;
+        return loadProfileSections(userProfileId);
     }
 
     /**
@@ -122,23 +75,36 @@ public class UserProfileSectionService {
         User user = getCurrentUser();
         UserProfile profile = user.getProfile();
 
-        // Pobierz definicję sekcji
-        UserProfileSectionDefinition definition = sectionDefinitionRepository.findById(sectionId)
-                .orElseThrow(() -> new IllegalArgumentException("Sekcja o podanym ID nie istnieje"));
+        // Pobierz definicję sekcji (z migawki w pamięci)
+        SectionDefinitionSnapshot.Definition definitionView = definitionCache.get().getById().get(sectionId);
+        if (definitionView == null) {
+            throw new IllegalArgumentException("Sekcja o podanym ID nie istnieje");
+        }
 
-        if (!definition.isVisible()) {
+        if (!definitionView.isVisible()) {
             throw new IllegalArgumentException("Nie można edytować niewidocznej sekcji");
         }
 
         // Jeśli sekcja jest wymagana, sprawdź czy treść nie jest pusta
-        if (definition.isRequired() && (content == null || content.trim().isEmpty())) {
+        if (definitionView.isRequired() && (content == null || content.trim().isEmpty())) {
             throw new IllegalArgumentException("Ta sekcja wymaga wypełnienia");
         }
 
+        // referencja bez zapytania o definicję
+        UserProfileSectionDefinition definition = sectionDefinitionRepository.getReferenceById(sectionId);
+
+        Optional<UserProfileSectionContent> existing =
+                sectionContentRepository.findByUserProfileAndSectionDefinition(profile, definition);
+
+        // Tryb rzadki: pusta treść to brak wiersza
+        if (sectionInitializerService.isSparse() && (content == null || content.isEmpty())) {
+            existing.ifPresent(sectionContentRepository::delete);
+            searchIndex.profileChanged(profile.getId());
+            return;
+        }
+
         // Znajdź istniejącą treść lub utwórz nową
-        UserProfileSectionContent sectionContent = sectionContentRepository
-                .findByUserProfileAndSectionDefinition(profile, definition)
-                .orElse(new UserProfileSectionContent());
+        UserProfileSectionContent sectionContent = existing.orElse(new UserProfileSectionContent());
 
         // Aktualizuj treść
         if (sectionContent.getId() == null) {
@@ -150,6 +116,7 @@ public class UserProfileSectionService {
 
         sectionContent.setContent(content);
         sectionContentRepository.save(sectionContent);
+        searchIndex.profileChanged(profile.getId());
     }
 
     /**
@@ -162,6 +129,29 @@ public class UserProfileSectionService {
 //        }
 //    }
 
+    /**
+     * Sekcje profilu w kolejności wyświetlania: definicje z migawki w pamięci, treści jednym zapytaniem,
+     * liniowe złożenie wyniku - pierwsza treść danej sekcji wygrywa, jak dotychczas.
+     */
+    private List<UserProfileSectionContentRequestDTO> loadProfileSections(Long profileId) {
+        Map<Long, String> contents = new HashMap<>();
+        for (Object[] row : sectionContentRepository.findContentsByProfileId(profileId)) {
+            contents.putIfAbsent((Long) row[0], (String) row[1]);
+        }
+
+        List<UserProfileSectionContentRequestDTO> result = new ArrayList<>();
+        for (SectionDefinitionSnapshot.Definition definition : definitionCache.get().getVisible()) {
+            String content = contents.get(definition.getId());
+            result.add(new UserProfileSectionContentRequestDTO(
+                    definition.getId(),
+                    definition.getName(),
+                    content != null ? content : "",
+                    definition.isRequired()
+            ));
+        }
+        return result;
+    }
+
     private User getCurrentUser() {
         String email = SecurityContextHolder.getContext().getAuthentication().getName();
         return userService.getUserByEmail(email);
@@ -0,0 +1,61 @@
+package com.matchmaking.backend.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+
+class WebSocketAuthChannelInterceptorTest {
+
+    private final WebSocketAuthChannelInterceptor interceptor =
+            new WebSocketAuthChannelInterceptor(mock(JwtAuthenticationResolver.class));
+    private final MessageChannel channel = mock(MessageChannel.class);
+
+    @Test
+    void sendToOtherUsersQueueIsRejected() {
+        Message<byte[]> message = frame(StompCommand.SEND, "/user/victim@example.com/queue/messages");
+        assertThrows(AccessDeniedException.class, () -> interceptor.preSend(message, channel));
+    }
+
+    @Test
+    void sendToReadReceiptsQueueIsRejected() {
+        Message<byte[]> message = frame(StompCommand.SEND, "/user/victim@example.com/queue/read-receipts");
+        assertThrows(AccessDeniedException.class, () -> interceptor.preSend(message, channel));
+    }
+
+    @Test
+    void sendToBrokerDestinationIsRejected() {
+        Message<byte[]> message = frame(StompCommand.SEND, "/queue/messages");
+        assertThrows(AccessDeniedException.class, () -> interceptor.preSend(message, channel));
+    }
+
+    @Test
+    void sendToApplicationDestinationIsAllowed() {
+        Message<byte[]> message = frame(StompCommand.SEND, "/app/chat");
+        assertSame(message, interceptor.preSend(message, channel));
+    }
+
+    @Test
+    void subscribeToOwnQueueIsAllowed() {
+        Message<byte[]> message = frame(StompCommand.SUBSCRIBE, "/user/queue/messages");
+        assertSame(message, interceptor.preSend(message, channel));
+    }
+
+    private static Message<byte[]> frame(StompCommand command, String destination) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(command);
+        accessor.setDestination(destination);
+        accessor.setUser(new UsernamePasswordAuthenticationToken("attacker@example.com", null, List.of()));
+        accessor.setLeaveMutable(true);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+}
@@ -0,0 +1,145 @@
+package com.matchmaking.backend.controller;
+
+import com.cloudinary.Cloudinary;
+import com.cloudinary.utils.ObjectUtils;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.matchmaking.backend.model.image.ImageStatus;
+import com.matchmaking.backend.model.image.UserProfileImage;
+import com.matchmaking.backend.repository.UserProfileImageRepository;
+import com.matchmaking.backend.repository.UserProfileRepository;
+import com.matchmaking.backend.service.UserService;
+import com.matchmaking.backend.service.image.AvatarResolver;
+import com.matchmaking.backend.service.image.CloudinaryService;
+import com.matchmaking.backend.service.image.ImageService;
+import com.matchmaking.backend.service.image.ImageUploadBuffer;
+import com.matchmaking.backend.service.image.ImageStorage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Symuluje webhook Cloudinary: podpisane powiadomienie eager kończy przetwarzanie zdjęcia.
+ */
+class CloudinaryNotificationControllerTest {
+
+    private static final String API_SECRET = "test-secret";
+    private static final String PUBLIC_ID = "user_profiles/test-image";
+    private static final String NOTIFY_URL = "http://localhost/api/images/cloudinary/notify";
+
+    private final UserProfileImageRepository imageRepository = mock(UserProfileImageRepository.class);
+    private UserProfileImage image;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        CloudinaryService cloudinaryService = cloudinaryService(true, NOTIFY_URL);
+        ImageService imageService = new ImageService(
+                mock(UserService.class),
+                mock(UserProfileRepository.class),
+                mock(ImageStorage.class),
+                imageRepository,
+                mock(AvatarResolver.class)
+        );
+        mockMvc = MockMvcBuilders.standaloneSetup(
+                new CloudinaryNotificationController(cloudinaryService, imageService, new ObjectMapper())
+        ).build();
+
+        image = UserProfileImage.builder()
+                .publicId(PUBLIC_ID)
+                .originalUrl("https://res.cloudinary.com/demo/image/upload/" + PUBLIC_ID)
+                .galleryUrl("https://res.cloudinary.com/demo/image/upload/predicted-gallery")
+                .thumbnailUrl("https://res.cloudinary.com/demo/image/upload/predicted-thumb")
+                .status(ImageStatus.PENDING)
+                .build();
+        when(imageRepository.findByPublicId(PUBLIC_ID)).thenReturn(Optional.of(image));
+    }
+
+    @Test
+    void signedEagerNotificationMarksImageReady() throws Exception {
+        String body = eagerNotification();
+        long timestamp = System.currentTimeMillis() / 1000;
+
+        mockMvc.perform(post("/api/images/cloudinary/notify")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("X-Cld-Timestamp", timestamp)
+                        .header("X-Cld-Signature", sign(body, timestamp))
+                        .content(body))
+                .andExpect(status().isOk());
+
+        assertEquals(ImageStatus.READY, image.getStatus());
+        assertEquals("https://res.cloudinary.com/demo/gallery.jpg", image.getGalleryUrl());
+        assertEquals("https://res.cloudinary.com/demo/thumb.jpg", image.getThumbnailUrl());
+    }
+
+    @Test
+    void notificationWithInvalidSignatureIsRejected() throws Exception {
+        String body = eagerNotification();
+        long timestamp = System.currentTimeMillis() / 1000;
+
+        mockMvc.perform(post("/api/images/cloudinary/notify")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("X-Cld-Timestamp", timestamp)
+                        .header("X-Cld-Signature", sign(body + " ", timestamp))
+                        .content(body))
+                .andExpect(status().isUnauthorized());
+
+        assertEquals(ImageStatus.PENDING, image.getStatus());
+    }
+
+    @Test
+    void notificationForUncommittedImageIsRetried() throws Exception {
+        when(imageRepository.findByPublicId(PUBLIC_ID)).thenReturn(Optional.empty());
+        String body = eagerNotification();
+        long timestamp = System.currentTimeMillis() / 1000;
+
+        mockMvc.perform(post("/api/images/cloudinary/notify")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("X-Cld-Timestamp", timestamp)
+                        .header("X-Cld-Signature", sign(body, timestamp))
+                        .content(body))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void eagerAsyncWithoutNotificationUrlFailsAtStartup() {
+        assertThrows(IllegalStateException.class, () -> cloudinaryService(true, ""));
+    }
+
+    private static CloudinaryService cloudinaryService(boolean eagerAsync, String notificationUrl) {
+        Cloudinary cloudinary = new Cloudinary(ObjectUtils.asMap(
+                "cloud_name", "demo",
+                "api_key", "test-key",
+                "api_secret", API_SECRET
+        ));
+        return new CloudinaryService(cloudinary, new ImageUploadBuffer(4, 10000), 20971520, 6291456,
+                eagerAsync, notificationUrl, 7200);
+    }
+
+    private static String eagerNotification() {
+        return """
+                {"notification_type":"eager","public_id":"%s","eager":[
+                {"secure_url":"https://res.cloudinary.com/demo/gallery.jpg"},
+                {"secure_url":"https://res.cloudinary.com/demo/thumb.jpg"}]}
+                """.formatted(PUBLIC_ID);
+    }
+
+    private static String sign(String body, long timestamp) throws Exception {
+        byte[] digest = MessageDigest.getInstance("SHA-1")
+                .digest((body + timestamp + API_SECRET).getBytes(StandardCharsets.UTF_8));
+        return HexFormat.of().formatHex(digest);
+    }
+}
@@ -0,0 +1,37 @@
+package com.matchmaking.backend.service.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PolishTextAnalyzerTest {
+
+    @Test
+    void accentedAndUnaccentedInflectedFormsProduceSameTerms() {
+        assertSameTerms("miłością", "miloscia");
+        assertSameTerms("miłości", "milosci");
+        assertSameTerms("żeglarstwem", "zeglarstwem");
+        assertSameTerms("książkę", "ksiazke");
+        assertSameTerms("podróżami", "podrozami");
+        assertSameTerms("Kocham góry i żeglarstwo", "kocham gory i zeglarstwo");
+    }
+
+    @Test
+    void inflectedFormsShareStem() {
+        assertEquals(PolishTextAnalyzer.analyze("miłość"), PolishTextAnalyzer.analyze("miłością"));
+        assertEquals(PolishTextAnalyzer.analyze("żeglarstwo"), PolishTextAnalyzer.analyze("zeglarstwem"));
+    }
+
+    @Test
+    void stopWordsAreSkippedWithAndWithoutDiacritics() {
+        assertEquals(List.of(), PolishTextAnalyzer.analyze("się już też"));
+        assertEquals(List.of(), PolishTextAnalyzer.analyze("sie juz tez"));
+    }
+
+    private static void assertSameTerms(String accented, String unaccented) {
+        assertEquals(PolishTextAnalyzer.analyze(accented), PolishTextAnalyzer.analyze(unaccented),
+                accented + " / " + unaccented);
+    }
+}